@@ -0,0 +1,48 @@
+package com.example.kafkademo.codec;
+
+import com.example.kafkademo.dto.TrackEventRequest;
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.events.AddToCartEvent;
+import com.example.kafkademo.events.interfaces.Event;
+import com.example.kafkademo.factory.EventFactory;
+import com.example.kafkademo.model.EventDocument;
+import com.example.kafkademo.product.ItemContext;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@Component
+public class AddToCartCodec implements EventCodec {
+
+    @Override
+    public Set<EventType> eventTypes() {
+        return EnumSet.of(EventType.ADD_TO_CART);
+    }
+
+    @Override
+    public Event toEvent(EventType type, TrackEventRequest request) {
+        ItemContext item = request.toItemContext();
+        return EventFactory.createAddToCart(
+                request.getUserId(),
+                item,
+                item.getQuantity()
+        );
+    }
+
+    @Override
+    public EventDocument toDocument(Event event) {
+        EventDocument doc = EventCodec.super.toDocument(event);
+        if (event instanceof AddToCartEvent) {
+            AddToCartEvent addToCart = (AddToCartEvent) event;
+            ItemContext item = addToCart.getItem();
+            doc.getProperties().put("itemId", item.getItemId());
+            doc.getProperties().put("itemType", item.getItemType());
+            doc.getProperties().put("price", item.getPrice());
+            doc.getProperties().put("quantity", item.getQuantity());
+            doc.getProperties().put("value", addToCart.getValue());
+            doc.getProperties().put("currency", addToCart.getCurrency());
+        }
+        return doc;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.kafkademo.codec;
+
+import com.example.kafkademo.dto.TrackEventRequest;
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.events.interfaces.Event;
+import com.example.kafkademo.model.EventDocument;
+
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * Converts one family of event types between the API request, the {@link Event} sent
+ * to Kafka and the {@link EventDocument} stored in MongoDB.
+ */
+public interface EventCodec {
+
+    /**
+     * Event types this codec is registered for. Types no codec claims fall back to
+     * {@link GenericEventCodec}.
+     */
+    Set<EventType> eventTypes();
+
+    Event toEvent(EventType type, TrackEventRequest request);
+
+    default EventDocument toDocument(Event event) {
+        return new EventDocument(
+                event.getEventId(),
+                event.getUserId(),
+                event.getEventType(),
+                event.getTimestamp(),
+                new HashMap<>(event.getProperties())
+        );
+    }
+}
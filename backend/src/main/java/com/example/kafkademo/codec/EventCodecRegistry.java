@@ -0,0 +1,54 @@
+package com.example.kafkademo.codec;
+
+import com.example.kafkademo.enums.EventType;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Precomputed dispatch from event type to codec, built once at startup. Every
+ * {@link EventType} resolves to a codec, so ingesting a new type needs no controller change.
+ */
+@Component
+public class EventCodecRegistry {
+
+    private final Map<EventType, EventCodec> codecs = new EnumMap<>(EventType.class);
+    private final Map<String, EventType> typesByName = new HashMap<>();
+
+    public EventCodecRegistry(List<EventCodec> registered, GenericEventCodec fallback) {
+        for (EventCodec codec : registered) {
+            for (EventType type : codec.eventTypes()) {
+                EventCodec previous = codecs.put(type, codec);
+                if (previous != null) {
+                    throw new IllegalStateException("Both " + previous.getClass().getSimpleName() + " and "
+                            + codec.getClass().getSimpleName() + " claim event type " + type);
+                }
+            }
+        }
+        for (EventType type : EventType.values()) {
+            codecs.putIfAbsent(type, fallback);
+            // Clients send either the constant name or its lower-case form (page_view)
+            typesByName.put(type.name(), type);
+            typesByName.put(type.name().toLowerCase(Locale.ROOT), type);
+        }
+    }
+
+    /**
+     * Resolves an event type name case-insensitively, or returns {@code null} if there is none.
+     */
+    public EventType resolve(String name) {
+        if (name == null) {
+            return null;
+        }
+        EventType type = typesByName.get(name);
+        return type != null ? type : typesByName.get(name.toUpperCase(Locale.ROOT));
+    }
+
+    public EventCodec codecFor(EventType type) {
+        return codecs.get(type);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.kafkademo.codec;
+
+import com.example.kafkademo.dto.TrackEventRequest;
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.events.interfaces.Event;
+import com.example.kafkademo.factory.EventFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Codec for every event type without a dedicated event class. The text request fields that
+ * are set, plus any extra fields in the body, become event properties. Prices, quantities
+ * and item lists are only read by the cart and purchase codecs.
+ */
+@Component
+public class GenericEventCodec implements EventCodec {
+
+    @Override
+    public Set<EventType> eventTypes() {
+        return EnumSet.noneOf(EventType.class);
+    }
+
+    @Override
+    public Event toEvent(EventType type, TrackEventRequest request) {
+        Map<String, String> properties = request.getAttributes() != null
+                ? new HashMap<>(request.getAttributes())
+                : new HashMap<>();
+        putIfPresent(properties, "sessionId", request.getSessionId());
+        putIfPresent(properties, "userAgent", request.getUserAgent());
+        putIfPresent(properties, "ipAddress", request.getIpAddress());
+        putIfPresent(properties, "pageUrl", request.getPageUrl());
+        putIfPresent(properties, "pageTitle", request.getPageTitle());
+        putIfPresent(properties, "referrer", request.getReferrer());
+        putIfPresent(properties, "itemId", request.getItemId());
+        putIfPresent(properties, "itemType", request.getItemType());
+        putIfPresent(properties, "orderId", request.getOrderId());
+        putIfPresent(properties, "paymentMethod", request.getPaymentMethod());
+        putIfPresent(properties, "currency", request.getCurrency());
+        return EventFactory.createGeneric(request.getUserId(), type, properties);
+    }
+
+    private static void putIfPresent(Map<String, String> properties, String key, String value) {
+        if (value != null) {
+            properties.put(key, value);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.kafkademo.codec;
+
+import com.example.kafkademo.dto.TrackEventRequest;
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.events.PageViewEvent;
+import com.example.kafkademo.events.interfaces.Event;
+import com.example.kafkademo.factory.EventFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@Component
+public class PageViewCodec implements EventCodec {
+
+    @Override
+    public Set<EventType> eventTypes() {
+        return EnumSet.of(EventType.PAGE_VIEW);
+    }
+
+    /**
+     * A view of a product page carries the viewed item as the {@code itemId} property, which
+     * is what counts it as the view step of that item's funnel.
+     */
+    @Override
+    public Event toEvent(EventType type, TrackEventRequest request) {
+        Event event = EventFactory.createPageView(
+                request.toUserContext(),
+                request.getPageUrl(),
+                request.getPageTitle()
+        );
+        if (request.getItemId() != null && !request.getItemId().isBlank()) {
+            ((PageViewEvent) event).addProperty("itemId", request.getItemId());
+        }
+        return event;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.kafkademo.codec;
+
+import com.example.kafkademo.dto.TrackEventRequest;
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.events.PurchaseEvent;
+import com.example.kafkademo.events.interfaces.Event;
+import com.example.kafkademo.factory.EventFactory;
+import com.example.kafkademo.model.EventDocument;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@Component
+public class PurchaseCodec implements EventCodec {
+
+    @Override
+    public Set<EventType> eventTypes() {
+        return EnumSet.of(EventType.PURCHASE);
+    }
+
+    @Override
+    public Event toEvent(EventType type, TrackEventRequest request) {
+        return EventFactory.createPurchase(
+                request.getUserId(),
+                request.getOrderId(),
+                request.purchasedItems(),
+                request.getPaymentMethod()
+        );
+    }
+
+    @Override
+    public EventDocument toDocument(Event event) {
+        EventDocument doc = EventCodec.super.toDocument(event);
+        if (event instanceof PurchaseEvent) {
+            PurchaseEvent purchase = (PurchaseEvent) event;
+            doc.getProperties().put("orderId", purchase.getOrderId());
+            doc.getProperties().put("paymentMethod", purchase.getPaymentMethod());
+            doc.getProperties().put("currency", purchase.getCurrency());
+            doc.getProperties().put("value", purchase.getValue());
+            doc.getProperties().put("itemCount", purchase.getItems() != null ? purchase.getItems().size() : 0);
+        }
+        return doc;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.kafkademo.config;
+
+import com.example.kafkademo.enums.EventType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Limits on how many records may be waiting for a producer acknowledgement at once.
+ * Event types without their own budget only count against {@link #maxInFlight}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ingest.admission")
+public class AdmissionProperties {
+    private boolean enabled = true;
+    private int maxInFlight = 10000;
+    private Map<EventType, Integer> perType = new EnumMap<>(EventType.class);
+    private long retryAfterSeconds = 1;
+}
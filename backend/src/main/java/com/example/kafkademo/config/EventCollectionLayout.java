@@ -0,0 +1,96 @@
+package com.example.kafkademo.config;
+
+import com.example.kafkademo.model.EventDocument;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.TimeSeriesGranularity;
+import com.mongodb.client.model.TimeSeriesOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Storage layout of the event collection, chosen with {@code app.persistence.layout}.
+ * <ul>
+ *   <li>{@code standard}: a regular collection, expired by a TTL index on {@code created_at}.</li>
+ *   <li>{@code timeseries}: a MongoDB time-series collection with {@code event_time} as time
+ *   field and {@code user_id} as meta field, so each user's events are stored together in
+ *   compressed buckets. Retention uses the collection's {@code expireAfterSeconds}.</li>
+ *   <li>{@code bucket}: per-user, per-hour bucket documents, see {@code BucketEventStore}.</li>
+ *   <li>{@code daily}: one collection per day, dropped whole for retention, see
+ *   {@code DailyEventStore}.</li>
+ * </ul>
+ * The first two keep one document per event in the same collection, so {@code EventRepository}
+ * works unchanged.
+ * An existing regular collection cannot be turned into a time-series one; switching layouts
+ * needs a new database or a migration. Unknown layout names fail at startup.
+ */
+@Slf4j
+@Component
+public class EventCollectionLayout implements InitializingBean {
+
+    private final MongoTemplate mongoTemplate;
+    private final StorageLayout layout;
+
+    @Value("${app.persistence.ttl-days:30}")
+    private long ttlDays;
+
+    @Value("${app.persistence.timeseries.granularity:seconds}")
+    private String granularity;
+
+    public EventCollectionLayout(MongoTemplate mongoTemplate,
+                                 @Value("${app.persistence.layout:standard}") String layout) {
+        this.mongoTemplate = mongoTemplate;
+        this.layout = StorageLayout.fromName(layout);
+    }
+
+    public StorageLayout getLayout() {
+        return layout;
+    }
+
+    public boolean isTimeSeries() {
+        return layout == StorageLayout.TIMESERIES;
+    }
+
+    public boolean isBucket() {
+        return layout == StorageLayout.BUCKET;
+    }
+
+    public boolean isDaily() {
+        return layout == StorageLayout.DAILY;
+    }
+
+    /**
+     * Whether events are stored as {@link EventDocument}s in their mapped collection.
+     */
+    public boolean isDocumentPerEvent() {
+        return !isBucket() && !isDaily();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!isTimeSeries()) {
+            return;
+        }
+        String name = mongoTemplate.getCollectionName(EventDocument.class);
+        Document existing = mongoTemplate.getDb().listCollections()
+                .filter(new Document("name", name))
+                .first();
+        if (existing == null) {
+            log.info("Creating time-series collection {} (retention {} days)", name, ttlDays);
+            mongoTemplate.getDb().createCollection(name, new CreateCollectionOptions()
+                    .timeSeriesOptions(new TimeSeriesOptions("event_time")
+                            .metaField("user_id")
+                            .granularity(TimeSeriesGranularity.valueOf(granularity.toUpperCase(Locale.ROOT))))
+                    .expireAfter(ttlDays, TimeUnit.DAYS));
+        } else if (!"timeseries".equals(existing.getString("type"))) {
+            throw new IllegalStateException("Collection " + name + " already exists as a regular collection; "
+                    + "drop or migrate it before using app.persistence.layout=timeseries");
+        }
+    }
+}
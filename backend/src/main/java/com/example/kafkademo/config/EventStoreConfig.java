@@ -0,0 +1,58 @@
+package com.example.kafkademo.config;
+
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.repository.BucketEventStore;
+import com.example.kafkademo.repository.DailyEventStore;
+import com.example.kafkademo.repository.DocumentEventStore;
+import com.example.kafkademo.repository.EventStore;
+import com.example.kafkademo.repository.EventWriteTemplates;
+import com.mongodb.WriteConcern;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Configuration
+public class EventStoreConfig {
+
+    @Value("${app.persistence.bucket.max-events:200}")
+    private int bucketMaxEvents;
+
+    @Value("${app.persistence.ttl-days:30}")
+    private long ttlDays;
+
+    @Bean
+    public EventWriteTemplates eventWriteTemplates(MongoTemplate mongoTemplate, MongoClientProperties properties) {
+        MongoClientProperties.WriteConcerns writeConcern = properties.getWriteConcern();
+        Map<EventType, WriteConcern> concerns = new EnumMap<>(EventType.class);
+        writeConcern.getTypes().forEach((type, name) -> concerns.put(type, writeConcern(name)));
+        return new EventWriteTemplates(mongoTemplate, writeConcern(writeConcern.getDefaultConcern()), concerns);
+    }
+
+    @Bean
+    public EventStore eventStore(EventCollectionLayout layout, MongoTemplate mongoTemplate,
+                                 @Qualifier("readMongoTemplate") MongoTemplate readTemplate,
+                                 EventWriteTemplates writeTemplates, ReactiveMongoTemplate reactiveTemplate) {
+        if (layout.isBucket()) {
+            return new BucketEventStore(mongoTemplate, readTemplate, writeTemplates, bucketMaxEvents, ttlDays);
+        }
+        if (layout.isDaily()) {
+            return new DailyEventStore(mongoTemplate, readTemplate, writeTemplates, reactiveTemplate, ttlDays);
+        }
+        return new DocumentEventStore(mongoTemplate, readTemplate, writeTemplates, reactiveTemplate,
+                layout.isTimeSeries());
+    }
+
+    private static WriteConcern writeConcern(String name) {
+        WriteConcern concern = WriteConcern.valueOf(name);
+        if (concern == null) {
+            throw new IllegalArgumentException("Unknown write concern: " + name);
+        }
+        return concern;
+    }
+}
@@ -1,34 +1,112 @@
 package com.example.kafkademo.config;
 
+import com.example.kafkademo.events.AddToCartEvent;
+import com.example.kafkademo.events.GenericEvent;
+import com.example.kafkademo.events.PageViewEvent;
+import com.example.kafkademo.events.PurchaseEvent;
+import com.example.kafkademo.producer.HotKeyPartitioner;
+import com.example.kafkademo.producer.LaneRouter;
+import com.example.kafkademo.producer.PartitionSkewMetrics;
+import com.example.kafkademo.serialization.AvroEventDeserializer;
+import com.example.kafkademo.serialization.AvroEventSerializer;
+import com.example.kafkademo.serialization.SchemaResolver;
+import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.converter.DefaultJackson2JavaTypeMapper;
+import org.springframework.kafka.support.converter.Jackson2JavaTypeMapper;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.ExponentialBackOff;
 
 import com.example.kafkademo.events.interfaces.Event;
 import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
+@RequiredArgsConstructor
 public class KafkaConfig {
 
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    @Value("${app.kafka.producer.profile:}")
+    private String producerProfile;
+
+    @Value("${app.kafka.wire-format:json}")
+    private String wireFormat;
+
+    @Value("${app.kafka.partitioning.hot-key-threshold:1000}")
+    private int hotKeyThreshold;
+
+    @Value("${app.kafka.partitioning.hot-key-window-ms:1000}")
+    private int hotKeyWindowMs;
+
+    @Value("${app.kafka.partitioning.hot-key-spread:3}")
+    private int hotKeySpread;
+
+    @Value("${app.kafka.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${app.processing.concurrency:3}")
+    private int processingConcurrency;
+
+    @Value("${app.analytics.funnel.retry.initial-interval-ms:1000}")
+    private long funnelRetryInitialIntervalMs;
+
+    @Value("${app.analytics.funnel.retry.max-interval-ms:60000}")
+    private long funnelRetryMaxIntervalMs;
+
+    private final SchemaResolver schemaResolver;
+    private final PartitionSkewMetrics partitionSkewMetrics;
+    private final LaneProperties laneProperties;
+
     @Bean
     public ProducerFactory<String, Event> producerFactory() {
+        return buildProducerFactory(producerProfile, Map.of());
+    }
+
+    private ProducerFactory<String, Event> buildProducerFactory(String profileName, Map<String, String> overrides) {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        configProps.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, HotKeyPartitioner.class);
+        configProps.put(HotKeyPartitioner.THRESHOLD_CONFIG, hotKeyThreshold);
+        configProps.put(HotKeyPartitioner.WINDOW_MS_CONFIG, hotKeyWindowMs);
+        configProps.put(HotKeyPartitioner.SPREAD_CONFIG, hotKeySpread);
+        configProps.put(HotKeyPartitioner.METRICS_CONFIG, partitionSkewMetrics);
+        ProducerProfile profile = ProducerProfile.fromName(profileName);
+        if (profile != null) {
+            profile.apply(configProps);
+        }
+        configProps.putAll(overrides);
+        Serializer<Event> valueSerializer;
+        if (isAvro()) {
+            valueSerializer = new AvroEventSerializer(schemaResolver);
+        } else {
+            JsonSerializer<Event> jsonSerializer = new JsonSerializer<>();
+            jsonSerializer.setTypeMapper(eventTypeMapper());
+            valueSerializer = jsonSerializer;
+        }
+        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), valueSerializer);
     }
 
     @Bean
@@ -43,4 +121,131 @@ public class KafkaConfig {
     public KafkaTemplate<String, Event> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
-}
\ No newline at end of file
+
+    @Bean
+    public LaneRouter laneRouter() {
+        return new LaneRouter(laneProperties, kafkaTemplate(), lane -> buildProducerFactory(
+                lane.getProfile() != null ? lane.getProfile() : producerProfile, lane.getProducer()));
+    }
+
+    /**
+     * Topics of the configured lanes besides {@code user-events}, which is declared above.
+     */
+    @Bean
+    public KafkaAdmin.NewTopics laneTopics() {
+        return new KafkaAdmin.NewTopics(laneProperties.getLanes().values().stream()
+                .filter(lane -> lane.getTopic() != null && !LaneRouter.DEFAULT_TOPIC.equals(lane.getTopic()))
+                .map(lane -> TopicBuilder.name(lane.getTopic())
+                        .partitions(lane.getPartitions())
+                        .replicas(1)
+                        .build())
+                .toArray(NewTopic[]::new));
+    }
+
+    /**
+     * Consumer factory that turns records back into the concrete event classes the
+     * producer wrote: from the Avro schema fingerprint, or in JSON mode from the type
+     * header {@link JsonSerializer} adds to each record. Each payload is parsed once, here.
+     * A record that cannot be read reaches the listener with a null value and the failure
+     * in a header instead of failing the poll, so one bad record cannot stall its partition.
+     */
+    @Bean
+    public ConsumerFactory<String, Event> eventConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+
+        Deserializer<Event> valueDeserializer;
+        if (isAvro()) {
+            valueDeserializer = new AvroEventDeserializer(schemaResolver);
+        } else {
+            JsonDeserializer<Event> jsonDeserializer = new JsonDeserializer<>(Event.class);
+            jsonDeserializer.setTypeMapper(eventTypeMapper());
+            jsonDeserializer.addTrustedPackages("com.example.kafkademo.events");
+            valueDeserializer = jsonDeserializer;
+        }
+        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(valueDeserializer));
+    }
+
+    /**
+     * Short type ids for the JSON type header, so the header does not tie records to class
+     * names. Records written with fully qualified class names are still read. The header
+     * must take precedence over the deserializer's target type, which is the {@link Event}
+     * interface and cannot be instantiated.
+     */
+    static Jackson2JavaTypeMapper eventTypeMapper() {
+        Map<String, Class<?>> idClassMapping = new HashMap<>();
+        idClassMapping.put("page-view", PageViewEvent.class);
+        idClassMapping.put("add-to-cart", AddToCartEvent.class);
+        idClassMapping.put("purchase", PurchaseEvent.class);
+        idClassMapping.put("generic", GenericEvent.class);
+        DefaultJackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+        typeMapper.setIdClassMapping(idClassMapping);
+        typeMapper.setTypePrecedence(Jackson2JavaTypeMapper.TypePrecedence.TYPE_ID);
+        return typeMapper;
+    }
+
+    /**
+     * Batch container factory for the lane listeners that persist events. Each poll is handed
+     * over as one list and offsets are committed by the listener once the batch is stored.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Event> eventListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Event> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(eventConsumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        return factory;
+    }
+
+    /**
+     * Batch factory for the funnel rollup listener. A batch whose rollup write fails is retried
+     * in place with exponential back-off, without a limit, so counts are not skipped while
+     * MongoDB is unavailable; the consumer is paused between attempts and keeps its partitions.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Event> funnelListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Event> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(eventConsumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        ExponentialBackOff backOff = new ExponentialBackOff(funnelRetryInitialIntervalMs, 2.0);
+        backOff.setMaxInterval(funnelRetryMaxIntervalMs);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(backOff));
+        return factory;
+    }
+
+    /**
+     * Container factory for running {@code EventProcessor}s off the request thread.
+     * Concurrency beyond the topic's partition count leaves consumers idle; use
+     * {@code app.processing.workers} for more parallelism than partitions. Records may be
+     * acknowledged out of order, and offsets are committed only up to the first gap.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Event> processingListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Event> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(eventConsumerFactory());
+        factory.setConcurrency(processingConcurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
+        return factory;
+    }
+
+    /**
+     * Record-at-a-time factory for the persistence retry topics. The retry topic support
+     * installs its own error handler, which forwards failures to the next topic instead of
+     * retrying in place.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Event> persistenceRetryContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Event> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(eventConsumerFactory());
+        return factory;
+    }
+
+    private boolean isAvro() {
+        return "avro".equalsIgnoreCase(wireFormat);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.kafkademo.config;
+
+import com.example.kafkademo.enums.EventType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Event lanes: families of event types that get their own topic, producer settings and
+ * listener concurrency. Types no lane claims use the {@code default} lane on
+ * {@code user-events}; configuring a lane named {@code default} tunes that lane.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.kafka")
+public class LaneProperties {
+    private Map<String, Lane> lanes = new LinkedHashMap<>();
+
+    @Data
+    public static class Lane {
+        private String topic;
+        private int partitions = 3;
+        private Set<EventType> eventTypes = EnumSet.noneOf(EventType.class);
+        // Producer profile for this lane; empty means the global app.kafka.producer.profile
+        private String profile;
+        // Raw producer properties applied on top of the profile, e.g. acks: "0"
+        private Map<String, String> producer = new HashMap<>();
+        // Listener consumers for the lane; empty means one per partition
+        private Integer concurrency;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.kafkademo.config;
+
+import com.example.kafkademo.enums.EventType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Client settings for MongoDB on top of {@code spring.data.mongodb.uri}: connection pool,
+ * wire compression, where reads go and how each event type's writes are acknowledged.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.mongo")
+public class MongoClientProperties {
+    private Pool pool = new Pool();
+    // zlib, snappy or zstd, in order of preference; snappy and zstd need their libraries
+    private List<String> compressors = new ArrayList<>();
+    private Read read = new Read();
+    private WriteConcerns writeConcern = new WriteConcerns();
+
+    @Data
+    public static class Pool {
+        private int maxSize = 100;
+        private int minSize = 0;
+        private long maxWaitMs = 2000;
+    }
+
+    @Data
+    public static class Read {
+        // Read preference of event queries, e.g. primary or secondaryPreferred
+        private String preference = "primary";
+        // Secondaries lagging the primary by more than this are not read from; at least 90
+        private long maxStalenessSeconds = 90;
+    }
+
+    @Data
+    public static class WriteConcerns {
+        // A WriteConcern constant such as w1, majority or journaled
+        private String defaultConcern = "w1";
+        private Map<EventType, String> types = new EnumMap<>(EventType.class);
+    }
+}
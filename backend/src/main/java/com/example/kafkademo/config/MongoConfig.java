@@ -1,19 +1,25 @@
 package com.example.kafkademo.config;
 
-import com.example.kafkademo.model.EventDocument;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.MongoTransactionManager;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
-import org.springframework.data.mongodb.core.index.IndexOperations;
-import com.mongodb.client.model.IndexOptions;
+
+import java.util.Collections;
+import java.util.Locale;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Configuration
 public class MongoConfig extends AbstractMongoClientConfiguration {
@@ -26,17 +32,59 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
     @Value("${spring.data.mongodb.uri}")
     private String mongoUri;
 
+    @Autowired
+    private MongoClientProperties properties;
+
+    @Override
+    protected void configureClientSettings(MongoClientSettings.Builder builder) {
+        MongoClientProperties.Pool pool = properties.getPool();
+        builder.applyConnectionString(new ConnectionString(mongoUri))
+            .applyToConnectionPoolSettings(settings -> settings
+                .maxSize(pool.getMaxSize())
+                .minSize(pool.getMinSize())
+                .maxWaitTime(pool.getMaxWaitMs(), TimeUnit.MILLISECONDS));
+        if (!properties.getCompressors().isEmpty()) {
+            builder.compressorList(properties.getCompressors().stream()
+                .map(MongoConfig::compressor)
+                .collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Shared by the blocking client and the reactive one in {@link ReactiveMongoConfig}.
+     */
+    @Override
+    @Bean
+    public MongoClientSettings mongoClientSettings() {
+        return super.mongoClientSettings();
+    }
+
     @Override
     @Bean
     public MongoClient mongoClient() {
-        return MongoClients.create(mongoUri);
+        return MongoClients.create(mongoClientSettings());
     }
 
+    /**
+     * Writes and schema changes, always on the primary. The write concern of event inserts
+     * is chosen per event type by {@code EventWriteTemplates}.
+     */
     @Bean
+    @Primary
     public MongoTemplate mongoTemplate() {
-        MongoTemplate mongoTemplate = new MongoTemplate(mongoClient(), getDatabaseName());
-        createIndexes(mongoTemplate);
-        return mongoTemplate;
+        // Indexes are created by MongoIndexManager
+        return new MongoTemplate(mongoClient(), getDatabaseName());
+    }
+
+    /**
+     * Event queries, sent according to {@code app.mongo.read} so they can be kept off the
+     * primary that takes the ingest writes.
+     */
+    @Bean
+    public MongoTemplate readMongoTemplate() {
+        MongoTemplate template = new MongoTemplate(mongoClient(), getDatabaseName());
+        template.setReadPreference(readPreference(properties.getRead()));
+        return template;
     }
 
     @Bean
@@ -44,20 +92,25 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
         return new MongoTransactionManager(dbFactory);
     }
 
-    private void createIndexes(MongoTemplate mongoTemplate) {
-        IndexOperations indexOps = mongoTemplate.indexOps(EventDocument.class);
-        
-        // Compound index for common query patterns
-        indexOps.ensureIndex(new CompoundIndexDefinition(
-                new org.bson.Document()
-                        .append("userId", 1)
-                        .append("eventType", 1)
-        ));
-
-        // TTL index for automatic data expiration (30 days)
-        org.springframework.data.mongodb.core.index.Index ttlIndex = new org.springframework.data.mongodb.core.index.Index()
-                .on("createdAt", org.springframework.data.domain.Sort.Direction.ASC)
-                .expire(30L, TimeUnit.DAYS);
-        indexOps.ensureIndex(ttlIndex);
+    static ReadPreference readPreference(MongoClientProperties.Read read) {
+        if ("primary".equalsIgnoreCase(read.getPreference())) {
+            // The primary is never stale, so it takes no max staleness
+            return ReadPreference.primary();
+        }
+        return ReadPreference.valueOf(read.getPreference(), Collections.emptyList(),
+            read.getMaxStalenessSeconds(), TimeUnit.SECONDS);
+    }
+
+    private static MongoCompressor compressor(String name) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "zlib":
+                return MongoCompressor.createZlibCompressor();
+            case "snappy":
+                return MongoCompressor.createSnappyCompressor();
+            case "zstd":
+                return MongoCompressor.createZstdCompressor();
+            default:
+                throw new IllegalArgumentException("Unknown MongoDB compressor: " + name);
+        }
     }
 }
@@ -0,0 +1,232 @@
+package com.example.kafkademo.config;
+
+import com.example.kafkademo.model.EventDocument;
+import com.example.kafkademo.repository.EventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the indexes the {@link EventRepository} query methods need, using the BSON field
+ * names from the mapping ({@code user_id}, not {@code userId}). Each derived query gets an
+ * index with its equality fields first, then its sort, then its range fields, unless a
+ * wider index already starts with the same keys. At startup every query is explained and
+ * any that would still scan the whole collection is reported.
+ */
+@Slf4j
+@Component
+public class MongoIndexManager implements InitializingBean {
+
+    // Stale indexes on the Java property names, which never matched a stored field, indexes
+    // superseded by a wider one, and those of repository queries no code path ran
+    private static final Set<String> OBSOLETE_INDEXES = Set.of("userId_1_eventType_1", "createdAt_1",
+            "user_id_1_event_type_1_timestamp_-1", "event_type_1", "timestamp_1");
+
+    private final MongoTemplate mongoTemplate;
+    private final EventCollectionLayout layout;
+    private final MongoPersistentEntity<?> entity;
+
+    @Value("${app.persistence.ttl-days:30}")
+    private long ttlDays;
+
+    public MongoIndexManager(MongoTemplate mongoTemplate, EventCollectionLayout layout) {
+        this.mongoTemplate = mongoTemplate;
+        this.layout = layout;
+        this.entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(EventDocument.class);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!layout.isDocumentPerEvent()) {
+            return;
+        }
+        IndexOperations indexOps = mongoTemplate.indexOps(EventDocument.class);
+        for (IndexInfo index : indexOps.getIndexInfo()) {
+            if (OBSOLETE_INDEXES.contains(index.getName())) {
+                log.info("Dropping obsolete index {}", index.getName());
+                indexOps.dropIndex(index.getName());
+            }
+        }
+
+        for (Document keys : requiredIndexes()) {
+            log.info("Ensuring index {} on {}", keys.toJson(), entity.getCollection());
+            indexOps.ensureIndex(new CompoundIndexDefinition(keys));
+        }
+        if (layout.isTimeSeries()) {
+            // Time-series ids are not unique, so inserts look up already stored events by id
+            indexOps.ensureIndex(new Index().on(fieldName("eventId"), Sort.Direction.ASC));
+        } else {
+            // Time-series collections expire whole buckets through expireAfterSeconds instead
+            indexOps.ensureIndex(new Index()
+                    .on(fieldName("createdAt"), Sort.Direction.ASC)
+                    .expire(ttlDays, TimeUnit.DAYS));
+        }
+
+        verifyQueryPlans();
+    }
+
+    /**
+     * The newest-first lookups by user, with and without type, with {@code _id} as the
+     * tie-breaker that keyset pagination seeks on, plus one index per query method that no
+     * other index already serves with a prefix of its keys.
+     */
+    List<Document> requiredIndexes() {
+        List<Document> indexes = new ArrayList<>();
+        indexes.add(new Document(fieldName("userId"), 1)
+                .append(fieldName("eventType"), 1)
+                .append(fieldName("timestamp"), -1)
+                .append(fieldName("id"), -1));
+        indexes.add(new Document(fieldName("userId"), 1)
+                .append(fieldName("timestamp"), -1)
+                .append(fieldName("id"), -1));
+        List<Document> derived = new ArrayList<>();
+        for (Method method : queryMethods()) {
+            derived.add(indexFor(new PartTree(method.getName(), EventDocument.class)));
+        }
+        // Widest first, so narrower indexes it already covers are skipped
+        derived.sort(Comparator.comparingInt(Document::size).reversed());
+        for (Document keys : derived) {
+            if (indexes.stream().noneMatch(index -> isPrefix(keys, index))) {
+                indexes.add(keys);
+            }
+        }
+        return indexes;
+    }
+
+    private Document indexFor(PartTree tree) {
+        Map<String, Integer> equality = new LinkedHashMap<>();
+        Map<String, Integer> range = new LinkedHashMap<>();
+        for (PartTree.OrPart or : tree) {
+            for (Part part : or) {
+                String field = fieldName(part.getProperty());
+                if (part.getType() == Part.Type.SIMPLE_PROPERTY) {
+                    equality.put(field, 1);
+                } else {
+                    range.put(field, 1);
+                }
+            }
+        }
+        Document keys = new Document();
+        keys.putAll(equality);
+        for (Sort.Order order : tree.getSort()) {
+            keys.putIfAbsent(fieldName(order.getProperty()), order.isAscending() ? 1 : -1);
+        }
+        range.forEach(keys::putIfAbsent);
+        return keys;
+    }
+
+    /**
+     * Explains each query method with placeholder arguments and warns about collection scans.
+     */
+    private void verifyQueryPlans() {
+        for (Method method : queryMethods()) {
+            Document filter = sampleFilter(new PartTree(method.getName(), EventDocument.class));
+            Document plan = mongoTemplate.getCollection(entity.getCollection()).find(filter).explain();
+            Object winningPlan = plan.get("queryPlanner", Document.class).get("winningPlan");
+            if (containsStage(winningPlan, "COLLSCAN")) {
+                log.warn("EventRepository.{} does a COLLSCAN for {}", method.getName(), filter.toJson());
+            } else {
+                log.debug("EventRepository.{} is served by an index", method.getName());
+            }
+        }
+    }
+
+    private Document sampleFilter(PartTree tree) {
+        Document filter = new Document();
+        for (PartTree.OrPart or : tree) {
+            for (Part part : or) {
+                String field = fieldName(part.getProperty());
+                Object sample = sampleValue(part.getProperty().getType());
+                if (part.getType() == Part.Type.SIMPLE_PROPERTY) {
+                    filter.put(field, sample);
+                } else {
+                    filter.put(field, new Document("$gte", sample).append("$lte", sample));
+                }
+            }
+        }
+        return filter;
+    }
+
+    private static Object sampleValue(Class<?> type) {
+        if (type.isEnum()) {
+            return ((Enum<?>) type.getEnumConstants()[0]).name();
+        }
+        if (type == long.class || type == Long.class || type == int.class || type == Integer.class) {
+            return 0L;
+        }
+        return "";
+    }
+
+    private static boolean containsStage(Object plan, String stage) {
+        if (plan instanceof Document) {
+            Document doc = (Document) plan;
+            if (stage.equals(doc.get("stage"))) {
+                return true;
+            }
+            return doc.values().stream().anyMatch(value -> containsStage(value, stage));
+        }
+        if (plan instanceof List) {
+            return ((List<?>) plan).stream().anyMatch(value -> containsStage(value, stage));
+        }
+        return false;
+    }
+
+    private static boolean isPrefix(Document keys, Document index) {
+        if (keys.size() > index.size()) {
+            return false;
+        }
+        List<Map.Entry<String, Object>> indexKeys = new ArrayList<>(index.entrySet());
+        int i = 0;
+        for (Map.Entry<String, Object> key : keys.entrySet()) {
+            Map.Entry<String, Object> indexKey = indexKeys.get(i++);
+            if (!indexKey.getKey().equals(key.getKey())) {
+                return false;
+            }
+            // A single-field prefix can be walked in either direction
+            if (keys.size() > 1 && !indexKey.getValue().equals(key.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<Method> queryMethods() {
+        List<Method> methods = new ArrayList<>();
+        for (Method method : EventRepository.class.getDeclaredMethods()) {
+            if (method.getName().startsWith("find") && !method.isDefault()) {
+                methods.add(method);
+            }
+        }
+        methods.sort(Comparator.comparing(Method::getName));
+        return methods;
+    }
+
+    private String fieldName(PropertyPath path) {
+        return fieldName(path.getSegment());
+    }
+
+    private String fieldName(String property) {
+        return entity.getRequiredPersistentProperty(property).getFieldName();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.kafkademo.config;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Named sets of producer settings, selected with {@code app.kafka.producer.profile}.
+ * Settings not listed here keep the client defaults.
+ */
+public enum ProducerProfile {
+
+    /**
+     * Send every record as soon as possible and wait for the leader only.
+     */
+    LATENCY {
+        @Override
+        void apply(Map<String, Object> config) {
+            config.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+            config.put(ProducerConfig.ACKS_CONFIG, "1");
+            config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false);
+            config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "none");
+        }
+    },
+
+    /**
+     * Wait a little to fill large lz4-compressed batches; fewer, bigger requests to the brokers.
+     */
+    THROUGHPUT {
+        @Override
+        void apply(Map<String, Object> config) {
+            config.put(ProducerConfig.LINGER_MS_CONFIG, 20);
+            config.put(ProducerConfig.BATCH_SIZE_CONFIG, 256 * 1024);
+            config.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 64L * 1024 * 1024);
+            config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+            config.put(ProducerConfig.ACKS_CONFIG, "1");
+            config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false);
+        }
+    },
+
+    /**
+     * Acknowledged by all in-sync replicas, no duplicates on retry, zstd to offset the extra round trip.
+     */
+    DURABLE {
+        @Override
+        void apply(Map<String, Object> config) {
+            config.put(ProducerConfig.ACKS_CONFIG, "all");
+            config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+            config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+            config.put(ProducerConfig.RETRIES_CONFIG, Integer.MAX_VALUE);
+            config.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+            config.put(ProducerConfig.BATCH_SIZE_CONFIG, 64 * 1024);
+            config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "zstd");
+        }
+    };
+
+    abstract void apply(Map<String, Object> config);
+
+    /**
+     * Resolves a profile name case-insensitively; blank means the client defaults.
+     */
+    public static ProducerProfile fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
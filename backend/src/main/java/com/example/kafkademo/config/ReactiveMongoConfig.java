@@ -0,0 +1,55 @@
+package com.example.kafkademo.config;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Non-blocking client for the event read API. Queries wait on the driver's asynchronous I/O
+ * instead of a Tomcat thread, and results are handed to the client on the small
+ * {@code eventReadScheduler}, so read load cannot use up the threads ingest needs.
+ */
+@Configuration
+public class ReactiveMongoConfig {
+
+    @Value("${app.query.reactive.threads:4}")
+    private int threads;
+
+    @Value("${app.query.reactive.max-queued:10000}")
+    private int maxQueued;
+
+    /**
+     * Same settings as the blocking client, with a connection pool of its own.
+     */
+    @Bean(destroyMethod = "close")
+    public MongoClient reactiveMongoClient(MongoClientSettings mongoClientSettings) {
+        return MongoClients.create(mongoClientSettings);
+    }
+
+    /**
+     * Reads with the read preference of {@code readMongoTemplate} and the mapping of the
+     * blocking templates.
+     */
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(MongoClient reactiveMongoClient, MongoTemplate mongoTemplate,
+                                                       MongoClientProperties properties) {
+        ReactiveMongoTemplate template = new ReactiveMongoTemplate(
+                new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient, mongoTemplate.getDb().getName()),
+                mongoTemplate.getConverter());
+        template.setReadPreference(MongoConfig.readPreference(properties.getRead()));
+        return template;
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler eventReadScheduler() {
+        return Schedulers.newBoundedElastic(threads, maxQueued, "event-reads");
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.kafkademo.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Kafka plumbing of the recent-events cache invalidations: a topic of user ids whose events
+ * were stored, a plain string producer, and a listener factory for consumers that read only
+ * what is published while they run and never commit offsets.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.query.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class RecentEventsCacheConfig {
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${app.query.cache.invalidation-topic:user-events-stored}")
+    private String invalidationTopic;
+
+    @Bean
+    public NewTopic cacheInvalidationTopic() {
+        return TopicBuilder.name(invalidationTopic)
+                .partitions(1)
+                .replicas(1)
+                .build();
+    }
+
+    @Bean
+    public ProducerFactory<String, String> cacheInvalidationProducerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), new StringSerializer());
+    }
+
+    @Bean
+    public KafkaTemplate<String, String> cacheInvalidationTemplate() {
+        return new KafkaTemplate<>(cacheInvalidationProducerFactory());
+    }
+
+    /**
+     * Each instance consumes in a group of its own. A new instance starts with an empty cache,
+     * so it reads from the end of the topic, and nothing is committed: the group is gone as
+     * soon as the instance stops.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> cacheInvalidationContainerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(configProps,
+                new StringDeserializer(), new StringDeserializer()));
+        factory.setBatchListener(true);
+        // Never acknowledged, so no offsets are committed
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+}
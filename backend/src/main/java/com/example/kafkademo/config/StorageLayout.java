@@ -0,0 +1,32 @@
+package com.example.kafkademo.config;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Values of {@code app.persistence.layout}; see {@link EventCollectionLayout}.
+ */
+public enum StorageLayout {
+
+    STANDARD,
+    TIMESERIES,
+    BUCKET,
+    DAILY;
+
+    /**
+     * Resolves a layout name case-insensitively; blank means {@link #STANDARD}. Any other
+     * value fails, so a typo stops the application instead of silently storing events in
+     * the standard layout.
+     */
+    public static StorageLayout fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return STANDARD;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown app.persistence.layout '" + name
+                    + "'; valid layouts are " + Arrays.toString(values()).toLowerCase(Locale.ROOT));
+        }
+    }
+}
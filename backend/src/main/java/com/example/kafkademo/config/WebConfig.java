@@ -1,19 +1,45 @@
 package com.example.kafkademo.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+
+    @Value("${app.query.stream.threads:16}")
+    private int streamThreads;
+
+    @Value("${app.query.stream.max-queued:1000}")
+    private int streamMaxQueued;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
                 .allowedOrigins("http://localhost:4200", "http://localhost:8080")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
-                .exposedHeaders("Authorization", "Content-Type")
+                .exposedHeaders("Authorization", "Content-Type", "X-Next-Cursor")
                 .allowCredentials(true)
                 .maxAge(3600);
     }
-}
\ No newline at end of file
+
+    /**
+     * StreamingResponseBody responses are written from a pool of their own. Each one holds
+     * its thread until a slow client has read everything, so sharing the
+     * {@code eventReadScheduler} would let a few such clients stall the reactive reads too.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(streamThreads);
+        executor.setMaxPoolSize(streamThreads);
+        executor.setQueueCapacity(streamMaxQueued);
+        executor.setThreadNamePrefix("stream-writes-");
+        executor.initialize();
+        configurer.setTaskExecutor(executor);
+    }
+}
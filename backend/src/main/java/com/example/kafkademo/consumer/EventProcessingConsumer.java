@@ -0,0 +1,75 @@
+package com.example.kafkademo.consumer;
+
+import com.example.kafkademo.events.interfaces.Event;
+import com.example.kafkademo.processor.EventProcessorManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the registered {@code EventProcessor}s from the {@code user-events} topic when
+ * {@code app.processing.mode=consumer}. The HTTP path then only validates and produces,
+ * and processing scales with partitions instead of request threads.
+ * <p>
+ * With {@code app.processing.workers > 0} the records of each partition are fanned out to a
+ * worker pool keyed by user, so one user's events are still processed in order while
+ * different users are processed in parallel. Records are acknowledged as they finish; the
+ * container commits only up to the first record that is still in progress, so a restart
+ * never skips unprocessed records.
+ */
+@Component
+@ConditionalOnProperty(name = "app.processing.mode", havingValue = "consumer")
+public class EventProcessingConsumer implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(EventProcessingConsumer.class);
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+
+    private final EventProcessorManager eventProcessorManager;
+    private final KeyOrderedExecutor executor;
+
+    public EventProcessingConsumer(EventProcessorManager eventProcessorManager, MeterRegistry meterRegistry,
+                                   @Value("${app.processing.workers:0}") int workers,
+                                   @Value("${app.processing.max-in-flight:1000}") int maxInFlight) {
+        this.eventProcessorManager = eventProcessorManager;
+        this.executor = workers > 0 ? new KeyOrderedExecutor(workers, maxInFlight, meterRegistry) : null;
+    }
+
+    @KafkaListener(topics = "#{@laneRouter.topicNames()}", groupId = "user-event-processors",
+            containerFactory = "processingListenerContainerFactory")
+    public void process(ConsumerRecord<String, Event> record, Acknowledgment acknowledgment) throws InterruptedException {
+        Event event = record.value();
+        if (executor == null) {
+            log.debug("Processing {} event {} for user {}", event.getEventType(), event.getEventId(), event.getUserId());
+            // Exceptions go to the container's error handler, which retries and then skips the record
+            eventProcessorManager.processEvent(event);
+            acknowledgment.acknowledge();
+            return;
+        }
+        String key = event.getUserId() != null ? event.getUserId() : record.key();
+        executor.submit(key, () -> {
+            try {
+                eventProcessorManager.processEvent(event);
+            } catch (RuntimeException e) {
+                // Off the consumer thread there is no error handler to retry; skip the record
+                // rather than hold back the commit of everything behind it
+                log.error("Failed to process {} event {} at {}-{}@{}", event.getEventType(), event.getEventId(),
+                        record.topic(), record.partition(), record.offset(), e);
+            }
+            acknowledgment.acknowledge();
+        });
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (executor != null) {
+            log.info("Waiting for {} records still being processed", executor.inFlight());
+            executor.shutdown(SHUTDOWN_TIMEOUT_MS);
+        }
+    }
+}
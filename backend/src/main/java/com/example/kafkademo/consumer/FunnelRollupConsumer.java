@@ -0,0 +1,48 @@
+package com.example.kafkademo.consumer;
+
+import com.example.kafkademo.events.interfaces.Event;
+import com.example.kafkademo.service.FunnelRollupService;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maintains the funnel rollups from every event lane in its own consumer group, so the
+ * rollups neither slow down nor depend on persisting the raw events. A failed rollup write
+ * is thrown to the container, which retries the whole poll with back-off until it succeeds;
+ * events of a batch that was partly applied before a crash can be counted twice.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.analytics.funnel.enabled", havingValue = "true", matchIfMissing = true)
+public class FunnelRollupConsumer {
+    private static final Logger log = LoggerFactory.getLogger(FunnelRollupConsumer.class);
+
+    private final FunnelRollupService funnelRollupService;
+
+    @KafkaListener(topics = "#{@laneRouter.topicNames()}", groupId = "user-event-funnel",
+            containerFactory = "funnelListenerContainerFactory",
+            concurrency = "${app.analytics.funnel.concurrency:1}")
+    public void consume(List<ConsumerRecord<String, Event>> records, Acknowledgment acknowledgment) {
+        List<Event> events = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, Event> record : records) {
+            // Undecodable records are logged by the persistence consumer already
+            if (record.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER) == null
+                    && record.value() != null) {
+                events.add(record.value());
+            }
+        }
+        int rollups = funnelRollupService.record(events);
+        log.debug("Updated {} funnel rollups from a batch of {} records", rollups, records.size());
+        acknowledgment.acknowledge();
+    }
+}
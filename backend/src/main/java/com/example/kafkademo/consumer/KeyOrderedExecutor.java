@@ -0,0 +1,82 @@
+package com.example.kafkademo.consumer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tasks on a fixed set of single-threaded workers, always picking the worker by key.
+ * Tasks with the same key therefore run one after another in submission order, while tasks
+ * with different keys run in parallel. {@link #submit} blocks once {@code maxInFlight} tasks
+ * are queued or running, which keeps a fast consumer from buffering unbounded work.
+ */
+public class KeyOrderedExecutor {
+
+    private final ExecutorService[] workers;
+    private final Semaphore permits;
+    private final int maxInFlight;
+
+    KeyOrderedExecutor(int workerCount, int maxInFlight, MeterRegistry meterRegistry) {
+        this("event-processing-", "processing.keyed.inflight", workerCount, maxInFlight, meterRegistry);
+    }
+
+    /**
+     * @param threadPrefix prefix of the worker thread names
+     * @param gaugeName name of the gauge reporting the tasks queued or running
+     */
+    public KeyOrderedExecutor(String threadPrefix, String gaugeName, int workerCount, int maxInFlight,
+                              MeterRegistry meterRegistry) {
+        this.workers = new ExecutorService[workerCount];
+        AtomicInteger threadNumber = new AtomicInteger();
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, threadPrefix + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight);
+        Gauge.builder(gaugeName, permits, p -> maxInFlight - p.availablePermits())
+                .description("Records handed to the processing workers and not finished yet")
+                .register(meterRegistry);
+    }
+
+    public void submit(String key, Runnable task) throws InterruptedException {
+        permits.acquire();
+        try {
+            workers[(key != null ? key.hashCode() & Integer.MAX_VALUE : 0) % workers.length].execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Lets queued tasks finish, waiting at most {@code timeoutMs}.
+     */
+    public void shutdown(long timeoutMs) throws InterruptedException {
+        for (ExecutorService worker : workers) {
+            worker.shutdown();
+        }
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        for (ExecutorService worker : workers) {
+            worker.awaitTermination(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+}
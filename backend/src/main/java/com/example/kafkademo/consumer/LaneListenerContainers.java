@@ -0,0 +1,83 @@
+package com.example.kafkademo.consumer;
+
+import com.example.kafkademo.config.LaneProperties;
+import com.example.kafkademo.events.interfaces.Event;
+import com.example.kafkademo.producer.LaneRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.BatchAcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One batch listener container per event lane, each with the lane's own concurrency (by
+ * default one consumer per partition), all feeding {@link UserEventConsumer}. A flood on a
+ * high-volume lane then only backs up that lane's consumers, while e.g. purchases keep being
+ * consumed at their usual latency.
+ */
+@Component
+public class LaneListenerContainers implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(LaneListenerContainers.class);
+
+    static final String GROUP_ID = "user-event-consumers";
+
+    private final List<ConcurrentMessageListenerContainer<String, Event>> containers =
+            new ArrayList<>();
+    private volatile boolean running;
+
+    public LaneListenerContainers(
+            LaneRouter laneRouter, UserEventConsumer userEventConsumer,
+            @Qualifier("eventListenerContainerFactory")
+            ConcurrentKafkaListenerContainerFactory<String, Event> containerFactory) {
+        laneRouter.lanes().forEach((name, lane) -> containers.add(
+                createContainer(name, lane, userEventConsumer, containerFactory)));
+    }
+
+    private static ConcurrentMessageListenerContainer<String, Event> createContainer(
+            String name, LaneProperties.Lane lane, UserEventConsumer userEventConsumer,
+            ConcurrentKafkaListenerContainerFactory<String, Event> containerFactory) {
+        ConcurrentMessageListenerContainer<String, Event> container =
+                containerFactory.createContainer(lane.getTopic());
+        container.setBeanName("user-events-lane-" + name);
+        container.getContainerProperties().setGroupId(GROUP_ID);
+        container.setConcurrency(lane.getConcurrency() != null
+                ? lane.getConcurrency()
+                : lane.getPartitions());
+        BatchAcknowledgingMessageListener<String, Event> listener = userEventConsumer::consume;
+        container.setupMessageListener(listener);
+        return container;
+    }
+
+    @Override
+    public void start() {
+        containers.forEach(container -> {
+            log.info("Starting listener {} on {} with concurrency {}", container.getBeanName(),
+                    container.getContainerProperties().getTopics(), container.getConcurrency());
+            container.start();
+        });
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.kafkademo.consumer;
+
+import com.example.kafkademo.events.interfaces.Event;
+import com.example.kafkademo.service.EventLogService;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.DltHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Retries storing events whose bulk insert failed in {@link UserEventConsumer}. Each failed
+ * attempt moves the event to the next retry topic with a longer delay, so a Mongo outage
+ * delays only these events and never blocks the lane partitions. Events that exhaust their
+ * attempts land on {@link #DLT} and can be replayed through the replay endpoint.
+ */
+@Component
+@RequiredArgsConstructor
+public class PersistenceRetryConsumer {
+    private static final Logger log = LoggerFactory.getLogger(PersistenceRetryConsumer.class);
+
+    public static final String TOPIC = "user-events-persistence";
+    public static final String DLT = TOPIC + "-dlt";
+
+    private final EventLogService eventLogService;
+    private final PersistenceRetryMetrics metrics;
+
+    @RetryableTopic(
+            attempts = "${app.persistence.retry.attempts:4}",
+            backoff = @Backoff(
+                    delayExpression = "${app.persistence.retry.initial-delay-ms:1000}",
+                    multiplierExpression = "${app.persistence.retry.multiplier:4}",
+                    maxDelayExpression = "${app.persistence.retry.max-delay-ms:60000}"),
+            numPartitions = "3",
+            replicationFactor = "1",
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            kafkaTemplate = "kafkaTemplate")
+    @KafkaListener(topics = TOPIC, groupId = "user-event-persistence",
+            containerFactory = "persistenceRetryContainerFactory")
+    public void store(Event event, @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+        metrics.attempt(topic);
+        eventLogService.logEvents(List.of(event));
+        metrics.recovered();
+    }
+
+    @DltHandler
+    public void deadLetter(ConsumerRecord<String, Event> record) {
+        Event event = record.value();
+        log.error("Giving up storing event {} after retries, parked on {}-{}@{}",
+                event != null ? event.getEventId() : null, record.topic(), record.partition(), record.offset());
+        metrics.deadLettered();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.kafkademo.consumer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics of the persistence retry chain. {@code events.persistence.retry.depth} is the number
+ * of events handed to the retry topics by this instance that are neither stored nor
+ * dead-lettered yet; {@code events.persistence.dlt.size} is the DLT backlog not replayed yet.
+ */
+@Component
+public class PersistenceRetryMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong retryDepth = new AtomicLong();
+    private final AtomicLong dltSize = new AtomicLong();
+    private final Counter forwarded;
+    private final Counter recovered;
+    private final Counter deadLettered;
+    private final Counter replayed;
+    private final Map<String, Counter> attempts = new ConcurrentHashMap<>();
+
+    public PersistenceRetryMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("events.persistence.retry.depth", retryDepth, AtomicLong::get)
+                .description("Events waiting in the persistence retry topics")
+                .register(meterRegistry);
+        Gauge.builder("events.persistence.dlt.size", dltSize, AtomicLong::get)
+                .description("Dead-lettered events not replayed yet")
+                .register(meterRegistry);
+        forwarded = Counter.builder("events.persistence.forwarded")
+                .description("Events whose bulk insert failed and that were sent to the retry topics")
+                .register(meterRegistry);
+        recovered = Counter.builder("events.persistence.recovered")
+                .description("Events stored by a retry attempt")
+                .register(meterRegistry);
+        deadLettered = Counter.builder("events.persistence.dead-lettered")
+                .description("Events that exhausted their retries")
+                .register(meterRegistry);
+        replayed = Counter.builder("events.persistence.replayed")
+                .description("Dead-lettered events stored by a replay")
+                .register(meterRegistry);
+    }
+
+    public void forwarded(int count) {
+        forwarded.increment(count);
+        retryDepth.addAndGet(count);
+    }
+
+    /**
+     * Counts a delivery on one of the retry topics; the tag tells how deep in the chain it is.
+     */
+    public void attempt(String topic) {
+        attempts.computeIfAbsent(topic, t -> Counter.builder("events.persistence.attempts")
+                .tag("topic", t)
+                .register(meterRegistry)).increment();
+    }
+
+    public void recovered() {
+        recovered.increment();
+        decrementDepth();
+    }
+
+    public void deadLettered() {
+        deadLettered.increment();
+        dltSize.incrementAndGet();
+        decrementDepth();
+    }
+
+    public void replayed(int count) {
+        replayed.increment(count);
+    }
+
+    public void dltSize(long size) {
+        dltSize.set(size);
+    }
+
+    private void decrementDepth() {
+        // Events forwarded before a restart are not counted, so never go below zero
+        retryDepth.updateAndGet(depth -> depth > 0 ? depth - 1 : 0);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.kafkademo.consumer;
+
+import com.example.kafkademo.events.interfaces.Event;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Hands events that could not be stored to {@link PersistenceRetryConsumer}.
+ */
+@Component
+@RequiredArgsConstructor
+public class PersistenceRetryPublisher {
+    private static final long FORWARD_TIMEOUT_SECONDS = 30;
+
+    private final KafkaTemplate<String, Event> kafkaTemplate;
+    private final PersistenceRetryMetrics persistenceRetryMetrics;
+
+    /**
+     * Sends the events to the retry topic and waits until the broker has acknowledged all of them.
+     *
+     * @throws IllegalStateException if any send fails, in which case the caller still owns the events
+     */
+    public void forward(List<Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<ListenableFuture<SendResult<String, Event>>> sends = new ArrayList<>(events.size());
+        for (Event event : events) {
+            sends.add(kafkaTemplate.send(PersistenceRetryConsumer.TOPIC, event.getUserId(), event));
+        }
+        try {
+            for (ListenableFuture<SendResult<String, Event>> send : sends) {
+                send.get(FORWARD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while forwarding events to " + PersistenceRetryConsumer.TOPIC, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to forward events to " + PersistenceRetryConsumer.TOPIC, e);
+        }
+        persistenceRetryMetrics.forwarded(events.size());
+    }
+}
@@ -1,25 +1,65 @@
 package com.example.kafkademo.consumer;
 
-import com.example.kafkademo.model.UserEvent;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.kafka.annotation.KafkaListener;
+import com.example.kafkademo.events.interfaces.Event;
+import com.example.kafkademo.service.EventLogService;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.serializer.SerializationUtils;
 import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persists records from every event lane, one poll at a time. Its listener containers are
+ * created per lane by {@link LaneListenerContainers}; payloads are already decoded for the
+ * configured wire format.
+ */
 @Component
+@RequiredArgsConstructor
 public class UserEventConsumer {
     private static final Logger log = LoggerFactory.getLogger(UserEventConsumer.class);
-    private final ObjectMapper objectMapper = new ObjectMapper();
 
-    @KafkaListener(topics = "user-events", groupId = "user-event-consumers")
-    public void consume(String message) {
+    private final EventLogService eventLogService;
+    private final PersistenceRetryPublisher persistenceRetryPublisher;
+
+    /**
+     * Writes the whole batch with one bulk insert and commits the offsets only once Mongo has
+     * acknowledged it. Events the insert could not store are handed to
+     * {@link PersistenceRetryConsumer} so the lane keeps moving; only if that hand-off fails
+     * as well is nothing committed and the batch redelivered.
+     */
+    public void consume(List<ConsumerRecord<String, Event>> records, Acknowledgment acknowledgment) {
+        List<Event> events = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, Event> record : records) {
+            if (record.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER) != null) {
+                // Poison pill: skip it so the rest of the partition keeps flowing
+                log.warn("Skipping undecodable record {}-{}@{}", record.topic(), record.partition(), record.offset());
+            } else if (record.value() != null) {
+                events.add(record.value());
+            }
+        }
         try {
-            UserEvent event = objectMapper.readValue(message, UserEvent.class);
-            log.info("📩 Received user event: {}", event);
-            // Add your processing logic here
-        } catch (Exception e) {
-            log.error("Error processing message: {}", message, e);
+            eventLogService.logEvents(events);
+            log.debug("📩 Stored {} user events from a batch of {} records", events.size(), records.size());
+        } catch (BulkOperationException e) {
+            // Events already stored by an earlier delivery are not reported as errors
+            List<Event> failed = new ArrayList<>();
+            for (BulkWriteError error : e.getErrors()) {
+                failed.add(events.get(error.getIndex()));
+            }
+            log.warn("Bulk insert stored {} of {} events, retrying the rest", events.size() - e.getErrors().size(), events.size());
+            persistenceRetryPublisher.forward(failed);
+        } catch (DataAccessException e) {
+            log.warn("Bulk insert of {} events failed, retrying them: {}", events.size(), e.getMessage());
+            persistenceRetryPublisher.forward(events);
         }
+        acknowledgment.acknowledge();
     }
 }
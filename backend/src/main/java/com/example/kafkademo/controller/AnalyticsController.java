@@ -0,0 +1,111 @@
+package com.example.kafkademo.controller;
+
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.service.FunnelRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PAGE_VIEW → ADD_TO_CART → PURCHASE conversion read from the hourly funnel rollups.
+ * Ranges are epoch milliseconds and are widened to whole hours.
+ */
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private static final int MAX_ITEMS = 1000;
+
+    private final FunnelRollupService funnelRollupService;
+
+    /**
+     * Step counts and conversion rates over {@code [from, to)}, for all items or one
+     * {@code itemId}. With {@code by=hour} the response also lists every hour that had events.
+     */
+    @GetMapping("/funnel")
+    public ResponseEntity<?> funnel(
+            @RequestParam long from,
+            @RequestParam long to,
+            @RequestParam(required = false) String itemId,
+            @RequestParam(required = false) String by) {
+        if (from >= to) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("message", "from must be before to"));
+        }
+        if (by != null && !"hour".equalsIgnoreCase(by)) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("message", "by must be hour"));
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("from", from);
+        response.put("to", to);
+        response.put("itemId", itemId);
+        response.putAll(funnelBody(funnelRollupService.funnel(from, to, itemId)));
+        if (by != null) {
+            List<Map<String, Object>> hours = new ArrayList<>();
+            funnelRollupService.hourly(from, to, itemId).forEach((hour, steps) -> {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("hour", hour.toString());
+                entry.putAll(funnelBody(steps));
+                hours.add(entry);
+            });
+            response.put("hours", hours);
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * The funnel of each item over {@code [from, to)}, the items with the most purchases first.
+     */
+    @GetMapping("/funnel/items")
+    public ResponseEntity<?> funnelByItem(
+            @RequestParam long from,
+            @RequestParam long to,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (from >= to) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("message", "from must be before to"));
+        }
+        if (limit < 1 || limit > MAX_ITEMS) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("message", "limit must be between 1 and " + MAX_ITEMS));
+        }
+        List<Map<String, Object>> items = new ArrayList<>();
+        funnelRollupService.byItem(from, to, limit).forEach((item, steps) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("itemId", item);
+            entry.putAll(funnelBody(steps));
+            items.add(entry);
+        });
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("from", from);
+        response.put("to", to);
+        response.put("items", items);
+        return ResponseEntity.ok(response);
+    }
+
+    private static Map<String, Object> funnelBody(Map<EventType, Long> steps) {
+        long views = steps.get(EventType.PAGE_VIEW);
+        long carts = steps.get(EventType.ADD_TO_CART);
+        long purchases = steps.get(EventType.PURCHASE);
+        Map<String, Object> conversion = new LinkedHashMap<>();
+        conversion.put("viewToCart", rate(carts, views));
+        conversion.put("cartToPurchase", rate(purchases, carts));
+        conversion.put("viewToPurchase", rate(purchases, views));
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("steps", steps);
+        body.put("conversion", conversion);
+        return body;
+    }
+
+    private static Double rate(long converted, long entered) {
+        return entered > 0 ? (double) converted / entered : null;
+    }
+}
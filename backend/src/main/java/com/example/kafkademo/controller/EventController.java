@@ -1,79 +1,273 @@
 package com.example.kafkademo.controller;
 
+import com.example.kafkademo.codec.EventCodecRegistry;
+import com.example.kafkademo.dto.EventPage;
+import com.example.kafkademo.dto.TrackEventRequest;
 import com.example.kafkademo.enums.EventType;
 import com.example.kafkademo.events.interfaces.Event;
 import java.util.Arrays;
-import com.example.kafkademo.factory.EventFactory;
 import com.example.kafkademo.processor.EventProcessorManager;
-import com.example.kafkademo.product.ItemContext;
-import com.example.kafkademo.user.UserContext;
+import com.example.kafkademo.processor.InlineEventProcessing;
+import com.example.kafkademo.producer.IngestThrottledException;
+import com.example.kafkademo.producer.UserEventProducer;
+import com.example.kafkademo.repository.EventCursor;
+import com.example.kafkademo.repository.EventQuery;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.consumer.*;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.concurrent.ListenableFuture;
 import org.springframework.web.bind.annotation.*;
-import java.math.BigDecimal;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import javax.servlet.http.HttpServletRequest;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.math.RoundingMode;
+import java.util.stream.Stream;
 
 import org.springframework.http.HttpStatus;
+import com.example.kafkademo.service.DeadLetterReplayService;
 import com.example.kafkademo.service.EventLogService;
 @RestController
 @RequestMapping("/api/events")
 @RequiredArgsConstructor
 public class EventController {
-    private final KafkaTemplate<String, Event> kafkaTemplate;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final UserEventProducer userEventProducer;
+    private final EventCodecRegistry eventCodecRegistry;
     private final EventProcessorManager eventProcessorManager;
+    private final InlineEventProcessing inlineEventProcessing;
     private final EventLogService eventLogService;
+    private final DeadLetterReplayService deadLetterReplayService;
+    private final ObjectMapper objectMapper;
     
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    @Value("${app.query.max-page-size:1000}")
+    private int maxPageSize;
+
+    @Value("${app.processing.mode:inline}")
+    private String processingMode;
+
+    @Value("${app.ingest.await-ack:false}")
+    private boolean awaitAck;
+
+    @Value("${app.ingest.ack-timeout-ms:5000}")
+    private long ackTimeoutMs;
+
+    @Value("${app.ingest.batch.max-records:1000}")
+    private int maxBatchRecords;
+
+    @Value("${app.ingest.batch.ack-timeout-ms:10000}")
+    private long batchAckTimeoutMs;
+
+    /**
+     * One page of a user's events, newest first, as a JSON array. When more events exist
+     * the {@code X-Next-Cursor} header carries the token to pass as {@code cursor} for the
+     * next page. {@code from} (inclusive) and {@code to} (exclusive) restrict the page to
+     * a time range in epoch milliseconds.
+     */
     @GetMapping
     public ResponseEntity<?> getEvents(
             @RequestParam(required = false) String userId,
-            @RequestParam(required = false) String eventType) {
-        
-        List<Event> events = new ArrayList<>();
-        String message = "No matching events found";
+            @RequestParam(required = false) String eventType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            @RequestParam(defaultValue = "100") int limit) {
         
-        if (userId != null && !userId.isEmpty()) {
-            if (eventType != null && !eventType.isEmpty()) {
-                try {
-                    EventType type = EventType.valueOf(eventType.toUpperCase());
-                    events = eventLogService.getEventsByUserIdAndType(userId, type);
-                } catch (IllegalArgumentException e) {
-                    return ResponseEntity.badRequest().body("Invalid event type. Valid types are: " + 
-                        Arrays.toString(EventType.values()));
+        if (userId == null || userId.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Collections.singletonMap("message", "No events found"));
+        }
+        if (limit < 1 || limit > maxPageSize) {
+            return ResponseEntity.badRequest().body("limit must be between 1 and " + maxPageSize);
+        }
+        ParsedQuery parsed = parseQuery(userId, eventType, from, to, cursor);
+        if (parsed.invalid != null) {
+            return parsed.invalid;
+        }
+
+        EventPage page = eventLogService.getEventPage(parsed.query, limit);
+        if (page.getEvents().isEmpty() && cursor == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Collections.singletonMap("message", "No matching events found"));
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNext() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNext());
+        }
+        return response.body(page.getEvents());
+    }
+
+    /**
+     * All of a user's events, newest first, as newline-delimited JSON. Events are written
+     * as they are read from the database cursor, so memory use does not grow with the
+     * number of events. {@code from} and {@code to} restrict the stream as for
+     * {@link #getEvents}.
+     */
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<?> streamEvents(
+            @RequestParam String userId,
+            @RequestParam(required = false) String eventType,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to) {
+        ParsedQuery parsed = parseQuery(userId, eventType, from, to, null);
+        if (parsed.invalid != null) {
+            return parsed.invalid;
+        }
+        EventQuery query = parsed.query;
+        StreamingResponseBody body = out -> {
+            try (Stream<Event> events = eventLogService.streamEvents(query)) {
+                Iterator<Event> it = events.iterator();
+                while (it.hasNext()) {
+                    out.write(objectMapper.writeValueAsBytes(it.next()));
+                    out.write('\n');
                 }
-            } else {
-                events = eventLogService.getEventsByUserId(userId);
             }
-            
-            if (events == null || events.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(Collections.singletonMap("message", message));
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+    
+    /**
+     * The same events as {@link #streamEvents}, read without blocking: no thread waits on
+     * the database, and the cursor is only advanced as fast as the client reads, so a slow
+     * client holds back its own query rather than buffering it in memory.
+     */
+    @GetMapping(value = "/reactive", produces = "application/x-ndjson")
+    public ResponseEntity<?> fluxEvents(
+            @RequestParam String userId,
+            @RequestParam(required = false) String eventType,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to) {
+        ParsedQuery parsed = parseQuery(userId, eventType, from, to, null);
+        if (parsed.invalid != null) {
+            return parsed.invalid;
+        }
+        Flux<Event> events = eventLogService.fluxEvents(parsed.query);
+        return ResponseEntity.ok().contentType(NDJSON).body(events);
+    }
+
+    /**
+     * Builds the query shared by the read endpoints, or the 400 response for an unknown
+     * event type or a cursor that cannot be decoded.
+     */
+    private ParsedQuery parseQuery(String userId, String eventType, Long from, Long to, String cursor) {
+        EventType type = null;
+        if (eventType != null && !eventType.isEmpty()) {
+            type = eventCodecRegistry.resolve(eventType);
+            if (type == null) {
+                return new ParsedQuery(null, ResponseEntity.badRequest().body("Invalid event type. Valid types are: " +
+                    Arrays.toString(EventType.values())));
             }
-        } else {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(Collections.singletonMap("message", "No events found"));
         }
-        
-        return ResponseEntity.ok(events);
+        EventQuery.EventQueryBuilder query = EventQuery.builder()
+            .userId(userId)
+            .eventType(type)
+            .from(from)
+            .to(to);
+        if (cursor != null) {
+            try {
+                query.after(EventCursor.decode(cursor));
+            } catch (IllegalArgumentException e) {
+                return new ParsedQuery(null, errorResponse(HttpStatus.BAD_REQUEST, "Invalid cursor", e.getMessage()));
+            }
+        }
+        return new ParsedQuery(query.build(), null);
     }
-    
+
+    /**
+     * Either the query to run or, when the parameters were rejected, the response to send.
+     */
+    private static final class ParsedQuery {
+        private final EventQuery query;
+        private final ResponseEntity<?> invalid;
+
+        ParsedQuery(EventQuery query, ResponseEntity<?> invalid) {
+            this.query = query;
+            this.invalid = invalid;
+        }
+    }
+
     @GetMapping("/clear")
     public ResponseEntity<String> clearEventLog() {
         eventLogService.clearEvents();
         return ResponseEntity.ok("Event log cleared successfully");
     }
 
+    /**
+     * Starts storing events that exhausted their persistence retries, at most {@code max} of
+     * them and no faster than {@code ratePerSecond}. The replay runs in the background; the
+     * 202 response points to {@link #replayStatus} for its progress.
+     */
+    @PostMapping("/dlt/replay")
+    public ResponseEntity<?> replayDeadLetters(
+            @RequestParam(defaultValue = "1000") int max,
+            @RequestParam(defaultValue = "200") int ratePerSecond) {
+        if (max < 1 || ratePerSecond < 1) {
+            return errorResponse(HttpStatus.BAD_REQUEST, "Invalid replay parameters",
+                    "max and ratePerSecond must be at least 1");
+        }
+        try {
+            DeadLetterReplayService.ReplayStatus status = deadLetterReplayService.start(max, ratePerSecond);
+            return ResponseEntity.accepted()
+                    .header(HttpHeaders.LOCATION, "/api/events/dlt/replay")
+                    .body(status);
+        } catch (IllegalStateException e) {
+            return errorResponse(HttpStatus.CONFLICT, "Replay not started", e.getMessage());
+        }
+    }
+
+    /**
+     * Progress of the running dead-letter replay, or the outcome of the last one.
+     */
+    @GetMapping("/dlt/replay")
+    public ResponseEntity<DeadLetterReplayService.ReplayStatus> replayStatus() {
+        return ResponseEntity.ok(deadLetterReplayService.status());
+    }
+
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(EventController.class);
 
+    /**
+     * Tracks a single event. With {@code app.ingest.await-ack=true} the request thread is
+     * released straight after the send and the response is only written once the broker
+     * has acknowledged the record, so a 200 means the event was written to Kafka. Inline
+     * processors then run on {@link InlineEventProcessing} workers rather than before the
+     * thread is released; their failures no longer turn into a 500.
+     */
     @PostMapping(produces = "application/json")
-    public ResponseEntity<?> trackEvent(@RequestBody Map<String, Object> request) {
+    public DeferredResult<ResponseEntity<?>> trackEvent(@RequestBody TrackEventRequest request) {
+        DeferredResult<ResponseEntity<?>> response = new DeferredResult<>(ackTimeoutMs,
+                () -> errorResponse(HttpStatus.SERVICE_UNAVAILABLE, "Event not acknowledged",
+                        "Timed out waiting for Kafka acknowledgement"));
+        ResponseEntity<?> immediate = track(request, response);
+        if (immediate != null) {
+            response.setResult(immediate);
+        }
+        return response;
+    }
+
+    /**
+     * Returns the response to write right away, or {@code null} when the response is
+     * completed later from the Kafka send callback.
+     */
+    private ResponseEntity<?> track(TrackEventRequest request, DeferredResult<ResponseEntity<?>> response) {
         log.info("Received trackEvent request: {}", request);
         if (request == null) {
             log.error("Request body is null");
@@ -81,190 +275,345 @@ public class EventController {
         }
         
         try {
-            // Extract common fields
-            String userId = (String) request.get("userId");
-            String eventTypeStr = (String) request.get("eventType");
-            
-            if (userId == null || eventTypeStr == null) {
+            if (request.getUserId() == null || request.getEventType() == null) {
                 return ResponseEntity.badRequest().body("Missing required fields: userId and eventType are required");
             }
             
-            String eventType = eventTypeStr.toUpperCase();
-            String sessionId = (String) request.get("sessionId");
-            String userAgent = (String) request.get("userAgent");
-            String ipAddress = (String) request.get("ipAddress");
-
-            // Create base event data
-            Map<String, Object> eventData = new java.util.HashMap<>();
-            eventData.put("sessionId", sessionId);
-            eventData.put("userAgent", userAgent);
-            eventData.put("ipAddress", ipAddress);
-
-            // Handle different event types
-            switch (EventType.valueOf(eventType)) {
-                case PAGE_VIEW:
-                    eventData.put("pageUrl", request.get("pageUrl"));
-                    eventData.put("pageTitle", request.get("pageTitle"));
-                    break;
-                    
-                case ADD_TO_CART:
-                    Map<String, Object> item = new java.util.HashMap<>();
-                    item.put("itemId", request.get("itemId"));
-                    item.put("itemType", request.get("itemType"));
-                    item.put("price", request.get("price"));
-                    item.put("quantity", request.get("quantity") != null ? request.get("quantity") : 1);
-                    eventData.put("item", item);
-                    break;
-                    
-                case PURCHASE:
-                    purchaseEvent(request, eventData);
-                    break;
-            }
+            Event event = buildEvent(request);
 
-            // Create the event
-            log.debug("Creating event with userId: {}, eventType: {}", userId, eventType);
-            Event event = createEvent(userId, eventType, eventData);
-            log.debug("Created event: {}", event);
-            
             try {
                 // Send to Kafka
                 log.debug("Sending event to Kafka");
-                kafkaTemplate.send("user-events", event.getEventId(), event)
-                    .addCallback(
+                ListenableFuture<SendResult<String, Event>> ack = userEventProducer.send(event);
+                if (awaitAck) {
+                    ack.addCallback(
+                        result -> response.setResult(ResponseEntity.ok(Collections.singletonMap("message", "Event tracked successfully"))),
+                        ex -> {
+                            log.error("Unable to send message to Kafka: {}", ex.getMessage(), ex);
+                            response.setResult(errorResponse(HttpStatus.SERVICE_UNAVAILABLE, "Failed to send event", ex.getMessage()));
+                        }
+                    );
+                } else {
+                    ack.addCallback(
                         result -> log.debug("Successfully sent message to topic: {}", result != null ? result.getRecordMetadata().topic() : "unknown"),
                         ex -> log.error("Unable to send message to Kafka: {}", ex.getMessage(), ex)
                     );
+                }
 
-                // Process event synchronously
-                log.debug("Processing event");
-                eventProcessorManager.processEvent(event);
-                log.debug("Successfully processed event");
+                // Process event, unless processors run from the topic
+                if (processesInline() && awaitAck) {
+                    inlineEventProcessing.submit(event);
+                } else if (processesInline()) {
+                    log.debug("Processing event");
+                    eventProcessorManager.processEvent(event);
+                    log.debug("Successfully processed event");
+                }
+            } catch (IngestThrottledException e) {
+                throw e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while queueing event for processing", e);
             } catch (Exception e) {
                 log.error("Error processing/sending event: {}", e.getMessage(), e);
                 throw new RuntimeException("Failed to process or send event: " + e.getMessage(), e);
             }
 
-            return ResponseEntity.ok(Collections.singletonMap("message", "Event tracked successfully"));
+            return awaitAck ? null : ResponseEntity.ok(Collections.singletonMap("message", "Event tracked successfully"));
+        } catch (IngestThrottledException e) {
+            log.warn("Rejecting event: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(errorBody("Too many events in flight", e.getMessage()));
         } catch (IllegalArgumentException e) {
             log.warn("Invalid event type: {}", e.getMessage());
-            Map<String, String> errorResponse = new HashMap<>();
-            errorResponse.put("error", "Invalid event type");
-            errorResponse.put("message", e.getMessage());
-            errorResponse.put("timestamp", new Date().toString());
-            return ResponseEntity.badRequest().body(errorResponse);
+            return errorResponse(HttpStatus.BAD_REQUEST, "Invalid event type", e.getMessage());
         } catch (Exception e) {
             log.error("Error processing event: {}", e.getMessage(), e);
-            Map<String, String> errorResponse = new HashMap<>();
-            errorResponse.put("error", "Failed to process event");
-            errorResponse.put("message", e.getMessage());
-            errorResponse.put("timestamp", new Date().toString());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(errorResponse);
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to process event", e.getMessage());
         }
     }
 
-    private static void purchaseEvent(Map<String, Object> request, Map<String, Object> eventData) {
-        eventData.put("orderId", request.get("orderId"));
-        eventData.put("paymentMethod", request.get("paymentMethod"));
-        eventData.put("currency", request.get("currency"));
-
-        List<Map<String, Object>> items = new ArrayList<>();
-        // For purchase, we expect items to be sent as an array in the request
-        if (request.get("items") != null && request.get("items") instanceof List) {
-            items = (List<Map<String, Object>>) request.get("items");
-        } else if (request.get("itemId") != null) {
-            // For backward compatibility, create an item from the form fields
-            Map<String, Object> purchaseItem = new HashMap<>();
-            purchaseItem.put("itemId", request.get("itemId"));
-
-            // Set itemType with default if not provided
-            purchaseItem.put("itemType", request.get("itemType") != null ? request.get("itemType") : "UNKNOWN");
-            
-            // Validate and set price with default 0.0 if not provided
+    /**
+     * A body that cannot be bound to {@link TrackEventRequest}, e.g. malformed JSON or a
+     * number field holding text, gets the same error shape as the other rejections.
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Map<String, String>> handleUnreadableBody(HttpMessageNotReadableException e) {
+        log.warn("Unreadable request body: {}", e.getMostSpecificCause().getMessage());
+        return errorResponse(HttpStatus.BAD_REQUEST, "Invalid request body", e.getMostSpecificCause().getMessage());
+    }
+
+    private static ResponseEntity<Map<String, String>> errorResponse(HttpStatus status, String error, String message) {
+        return ResponseEntity.status(status).body(errorBody(error, message));
+    }
+
+    private static Map<String, String> errorBody(String error, String message) {
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", error);
+        errorResponse.put("message", message);
+        errorResponse.put("timestamp", new Date().toString());
+        return errorResponse;
+    }
+
+    /**
+     * Accepts a JSON array or newline-delimited JSON (Content-Type: application/x-ndjson)
+     * of the same records {@link #trackEvent} takes. Records are parsed one at a time
+     * and sent to Kafka without waiting in between; the request thread is then released and
+     * the response is written once every send has been acknowledged (or timed out). It
+     * carries a status per record. Reading stops after {@code app.ingest.batch.max-records}
+     * records, valid or not, and the response is then marked {@code truncated}.
+     */
+    @PostMapping(value = "/batch", produces = "application/json")
+    public DeferredResult<ResponseEntity<?>> trackEvents(HttpServletRequest httpRequest) {
+        IngestBatch batch = new IngestBatch();
+        try (InputStream body = httpRequest.getInputStream()) {
+            if (isNdjson(httpRequest.getContentType())) {
+                readNdjson(body, batch);
+            } else {
+                readJsonArray(body, batch);
+            }
+        } catch (IOException e) {
+            log.warn("Malformed batch payload after {} records: {}", batch.size(), e.getMessage());
+            batch.reject("Malformed payload, remaining records were not read: " + e.getMessage());
+        }
+
+        DeferredResult<ResponseEntity<?>> response = new DeferredResult<>(batchAckTimeoutMs, batch::timedOut);
+        batch.respondWhenAcked(response);
+        return response;
+    }
+
+    private boolean processesInline() {
+        return !"consumer".equalsIgnoreCase(processingMode);
+    }
+
+    private static boolean isNdjson(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            return NDJSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void readNdjson(InputStream body, IngestBatch batch) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(TrackEventRequest.class);
+        BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (batch.isFull()) {
+                batch.truncate();
+                return;
+            }
+            TrackEventRequest record;
             try {
-                BigDecimal price = BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
-                if (request.get("price") != null) {
-                    price = new BigDecimal(request.get("price").toString())
-                            .setScale(2, RoundingMode.HALF_UP);
-                    if (price.compareTo(BigDecimal.ZERO) < 0) {
-                        throw new IllegalArgumentException("Price cannot be negative");
-                    }
-                }
-                purchaseItem.put("price", price.doubleValue());
-            } catch (NumberFormatException e) {
-                throw new IllegalArgumentException("Invalid price format. Please provide a valid number.", e);
+                record = reader.readValue(line);
+            } catch (IOException e) {
+                // A bad line only costs that line; the next one starts a fresh parse
+                batch.reject("Invalid JSON record: " + e.getMessage());
+                continue;
             }
-            
-            // Set quantity with default 1 if not provided
-            int quantity = 1;
-            if (request.get("quantity") != null) {
+            batch.submit(record);
+        }
+    }
+
+    private void readJsonArray(InputStream body, IngestBatch batch) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(TrackEventRequest.class);
+        // readValues unwraps a root-level array and yields its elements one by one
+        try (MappingIterator<TrackEventRequest> records = reader.readValues(body)) {
+            while (records.hasNextValue()) {
+                if (batch.isFull()) {
+                    batch.truncate();
+                    return;
+                }
+                TrackEventRequest record;
                 try {
-                    quantity = Integer.parseInt(request.get("quantity").toString());
-                    if (quantity < 1) {
-                        throw new IllegalArgumentException("Quantity must be at least 1");
-                    }
-                } catch (NumberFormatException e) {
-                    throw new IllegalArgumentException("Invalid quantity format", e);
+                    record = records.nextValue();
+                } catch (JsonMappingException e) {
+                    batch.reject("Invalid record: " + e.getOriginalMessage());
+                    continue;
                 }
+                batch.submit(record);
             }
-            purchaseItem.put("quantity", quantity);
-            
-            items.add(purchaseItem);
         }
-        eventData.put("items", items);
     }
 
-    private Event createEvent(String userId, String eventType, Map<String, Object> data) {
-        EventType type = EventType.valueOf(eventType.toUpperCase());
-        switch (type) {
-            case PAGE_VIEW:
-                return EventFactory.createPageView(
-                        createUserContext(data),
-                        (String) data.get("pageUrl"),
-                        (String) data.get("pageTitle")
-                );
-
-            case ADD_TO_CART:
-                ItemContext item = createItemContext((Map<String, Object>) data.get("item"));
-                return EventFactory.createAddToCart(
-                        userId,
-                        item,
-                        (int) data.getOrDefault("quantity", 1)
-                );
-
-            case PURCHASE:
-                List<ItemContext> items = ((List<Map<String, Object>>) data.get("items")).stream()
-                        .map(this::createItemContext)
-                        .collect(Collectors.toList());
-
-                return EventFactory.createPurchase(
-                        userId,
-                        (String) data.get("orderId"),
-                        items,
-                        (String) data.get("paymentMethod")
-                );
-
-            default:
-                throw new IllegalArgumentException("Unsupported event type: " + eventType);
+    /**
+     * Per-request state of a batch ingest: one result entry per record, in input order,
+     * plus the pending Kafka acknowledgement for every record that was sent. Holds at most
+     * {@code maxBatchRecords} entries; acknowledgements arrive on producer threads and the
+     * timeout on a container thread, so the response is built under the batch's lock.
+     */
+    private class IngestBatch {
+        private final List<Map<String, Object>> results = new ArrayList<>();
+        private final List<ListenableFuture<SendResult<String, Event>>> acks = new ArrayList<>();
+        private int accepted;
+        private int rejected;
+        private long retryAfterSeconds;
+        private boolean truncated;
+        private int pending;
+        private boolean finished;
+
+        int size() {
+            return results.size();
+        }
+
+        boolean isFull() {
+            return results.size() >= maxBatchRecords;
+        }
+
+        void truncate() {
+            truncated = true;
+        }
+
+        void submit(TrackEventRequest record) {
+            if (record == null) {
+                reject("Record must be a JSON object");
+                return;
+            }
+            try {
+                Event event = buildEvent(record);
+                ListenableFuture<SendResult<String, Event>> ack = userEventProducer.send(event);
+                if (processesInline()) {
+                    eventProcessorManager.processEvent(event);
+                }
+                add(event.getEventId(), ack, null);
+            } catch (IngestThrottledException e) {
+                retryAfterSeconds = Math.max(retryAfterSeconds, e.getRetryAfterSeconds());
+                reject(e.getMessage());
+            } catch (Exception e) {
+                reject(e.getMessage());
+            }
         }
-    }
 
-    // Helper methods to create context objects from maps
-    private UserContext createUserContext(Map<String, Object> data) {
-        return UserContext.builder()
-                .sessionId((String) data.get("sessionId"))
-                .userAgent((String) data.get("userAgent"))
-                .ipAddress((String) data.get("ipAddress"))
-                .build();
+        void reject(String error) {
+            add(null, null, error != null ? error : "Rejected");
+        }
+
+        private void add(String eventId, ListenableFuture<SendResult<String, Event>> ack, String error) {
+            if (isFull()) {
+                truncate();
+                return;
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("index", results.size());
+            if (eventId != null) {
+                result.put("eventId", eventId);
+            }
+            if (error != null) {
+                result.put("status", "rejected");
+                result.put("error", error);
+            }
+            results.add(result);
+            acks.add(ack);
+        }
+
+        /**
+         * Completes {@code response} once the last sent record is acknowledged or failed.
+         */
+        void respondWhenAcked(DeferredResult<ResponseEntity<?>> response) {
+            synchronized (this) {
+                for (ListenableFuture<SendResult<String, Event>> ack : acks) {
+                    if (ack == null) {
+                        rejected++;
+                    } else {
+                        pending++;
+                    }
+                }
+                if (pending == 0) {
+                    response.setResult(finish());
+                    return;
+                }
+            }
+            for (int i = 0; i < acks.size(); i++) {
+                ListenableFuture<SendResult<String, Event>> ack = acks.get(i);
+                if (ack == null) {
+                    continue;
+                }
+                int index = i;
+                ack.addCallback(
+                    result -> acked(index, null, response),
+                    ex -> {
+                        log.error("Unable to send batch record {} to Kafka: {}", index, ex.getMessage());
+                        acked(index, "Kafka send failed: " + ex.getMessage(), response);
+                    });
+            }
+        }
+
+        private synchronized void acked(int index, String error, DeferredResult<ResponseEntity<?>> response) {
+            if (finished) {
+                return;
+            }
+            Map<String, Object> result = results.get(index);
+            if (error == null) {
+                result.put("status", "accepted");
+                accepted++;
+            } else {
+                result.put("status", "rejected");
+                result.put("error", error);
+                rejected++;
+            }
+            if (--pending == 0) {
+                response.setResult(finish());
+            }
+        }
+
+        /**
+         * The response when the acknowledgement timeout ends first: records still waiting
+         * count as rejected.
+         */
+        synchronized ResponseEntity<?> timedOut() {
+            if (finished) {
+                // Completed concurrently; the response already carries the outcome
+                return null;
+            }
+            for (Map<String, Object> result : results) {
+                if (!result.containsKey("status")) {
+                    result.put("status", "rejected");
+                    result.put("error", "Timed out waiting for Kafka acknowledgement");
+                    rejected++;
+                }
+            }
+            return finish();
+        }
+
+        private ResponseEntity<?> finish() {
+            finished = true;
+            log.info("Batch ingest finished: {} accepted, {} rejected{}", accepted, rejected,
+                    truncated ? ", truncated at " + maxBatchRecords + " records" : "");
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("accepted", accepted);
+            response.put("rejected", rejected);
+            if (truncated) {
+                response.put("truncated", true);
+            }
+            response.put("results", results);
+            if (retryAfterSeconds > 0) {
+                // Some records were throttled; tell the client when resubmitting them makes sense
+                return ResponseEntity.ok()
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                        .body(response);
+            }
+            return ResponseEntity.ok(response);
+        }
     }
 
-    private ItemContext createItemContext(Map<String, Object> data) {
-        return ItemContext.builder()
-                .itemId((String) data.get("itemId"))
-                .itemType((String) data.get("itemType"))
-                .price(BigDecimal.valueOf(((Number) data.get("price")).doubleValue()))
-                .currency((String) data.get("currency"))
-                .quantity((int) data.getOrDefault("quantity", 1))
-                .build();
+    private Event buildEvent(TrackEventRequest request) {
+        if (request.getUserId() == null || request.getEventType() == null) {
+            throw new IllegalArgumentException("Missing required fields: userId and eventType are required");
+        }
+
+        EventType type = eventCodecRegistry.resolve(request.getEventType());
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown event type: " + request.getEventType());
+        }
+        log.debug("Creating event with userId: {}, eventType: {}", request.getUserId(), type);
+        Event event = eventCodecRegistry.codecFor(type).toEvent(type, request);
+        log.debug("Created event: {}", event);
+        return event;
     }
-}
\ No newline at end of file
+}
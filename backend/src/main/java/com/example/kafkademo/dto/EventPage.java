@@ -0,0 +1,16 @@
+package com.example.kafkademo.dto;
+
+import com.example.kafkademo.events.interfaces.Event;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One page of a user's events, newest first. {@code next} is an opaque cursor for the
+ * following page, or {@code null} on the last page.
+ */
+@Value
+public class EventPage {
+    List<Event> events;
+    String next;
+}
@@ -0,0 +1,66 @@
+package com.example.kafkademo.dto;
+
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.events.interfaces.Event;
+import com.example.kafkademo.model.EventDocument;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read model returned by the event queries. It wraps a stored {@link EventDocument} and
+ * converts the stored property values to strings on first access only, so serializing
+ * a page walks each document once.
+ */
+@JsonPropertyOrder({"eventId", "userId", "eventType", "timestamp", "properties"})
+public final class EventView implements Event {
+
+    /**
+     * Document properties the view reads; queries project to these.
+     */
+    public static final String[] FIELDS = {"eventId", "userId", "eventType", "timestamp", "properties"};
+
+    private final EventDocument doc;
+    private Map<String, String> properties;
+
+    public EventView(EventDocument doc) {
+        this.doc = doc;
+    }
+
+    @Override
+    public String getEventId() {
+        return doc.getEventId();
+    }
+
+    @Override
+    public String getUserId() {
+        return doc.getUserId();
+    }
+
+    @Override
+    public EventType getEventType() {
+        return doc.getEventType();
+    }
+
+    @Override
+    public long getTimestamp() {
+        return doc.getTimestamp();
+    }
+
+    @Override
+    public Map<String, String> getProperties() {
+        if (properties == null) {
+            Map<String, Object> stored = doc.getProperties();
+            if (stored == null || stored.isEmpty()) {
+                properties = Collections.emptyMap();
+            } else {
+                Map<String, String> converted = new LinkedHashMap<>(stored.size() * 4 / 3 + 1);
+                stored.forEach((key, value) -> converted.put(key, value != null ? value.toString() : ""));
+                properties = Collections.unmodifiableMap(converted);
+            }
+        }
+        return properties;
+    }
+}
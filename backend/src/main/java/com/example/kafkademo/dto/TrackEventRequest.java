@@ -0,0 +1,115 @@
+package com.example.kafkademo.dto;
+
+import com.example.kafkademo.product.ItemContext;
+import com.example.kafkademo.user.UserContext;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Body of {@code POST /api/events}, bound by Jackson straight from the request stream.
+ * Numbers arrive already typed and purchase items bind directly to {@link ItemContext},
+ * so no intermediate maps are built per request.
+ */
+@Data
+public class TrackEventRequest {
+    // Common to all event types
+    private String userId;
+    private String eventType;
+    private String sessionId;
+    private String userAgent;
+    private String ipAddress;
+
+    // PAGE_VIEW
+    private String pageUrl;
+    private String pageTitle;
+    private String referrer;
+
+    // ADD_TO_CART, and single-item PURCHASE sent from the form fields
+    private String itemId;
+    private String itemType;
+    private BigDecimal price;
+    private Integer quantity;
+
+    // PURCHASE
+    private String orderId;
+    private String paymentMethod;
+    private String currency;
+    private List<ItemContext> items;
+
+    // Any other fields, kept for event types without a dedicated codec
+    private Map<String, String> attributes;
+
+    @JsonAnySetter
+    public void setAttribute(String name, Object value) {
+        if (attributes == null) {
+            attributes = new HashMap<>();
+        }
+        attributes.put(name, value != null ? value.toString() : null);
+    }
+
+    public UserContext toUserContext() {
+        return UserContext.builder()
+                .userId(userId)
+                .sessionId(sessionId)
+                .userAgent(userAgent)
+                .ipAddress(ipAddress)
+                .build();
+    }
+
+    /**
+     * The item described by the flat {@code itemId}/{@code price}/{@code quantity} fields.
+     */
+    public ItemContext toItemContext() {
+        return ItemContext.builder()
+                .itemId(itemId)
+                .itemType(itemType != null ? itemType : "UNKNOWN")
+                .price(validPrice(price))
+                .currency(currency)
+                .quantity(validQuantity(quantity))
+                .build();
+    }
+
+    /**
+     * Items of a purchase: the {@code items} array when present, otherwise a single item
+     * built from the flat form fields for backward compatibility.
+     */
+    public List<ItemContext> purchasedItems() {
+        if (items != null) {
+            for (ItemContext item : items) {
+                item.setPrice(validPrice(item.getPrice()));
+                item.setQuantity(item.getQuantity() == 0 ? 1 : validQuantity(item.getQuantity()));
+                if (item.getCurrency() == null) {
+                    item.setCurrency(currency);
+                }
+            }
+            return items;
+        }
+        return itemId != null ? List.of(toItemContext()) : List.of();
+    }
+
+    private static BigDecimal validPrice(BigDecimal price) {
+        if (price == null) {
+            return BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
+        }
+        if (price.signum() < 0) {
+            throw new IllegalArgumentException("Price cannot be negative");
+        }
+        return price.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static int validQuantity(Integer quantity) {
+        if (quantity == null) {
+            return 1;
+        }
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be at least 1");
+        }
+        return quantity;
+    }
+}
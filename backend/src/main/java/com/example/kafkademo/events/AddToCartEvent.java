@@ -6,13 +6,15 @@ import com.example.kafkademo.product.ItemContext;
 import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 
 @Data
 @EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
 public class AddToCartEvent extends BaseEvent implements EcommerceEvent {
-    private final ItemContext item;
+    private ItemContext item;
     private String orderId;
     private BigDecimal value;
     private String currency;
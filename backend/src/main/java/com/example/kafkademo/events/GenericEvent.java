@@ -0,0 +1,27 @@
+package com.example.kafkademo.events;
+
+import com.example.kafkademo.enums.EventType;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Event for types without a dedicated class (SEARCH, LOGIN, SESSION_START, ...).
+ * Everything beyond the common fields travels in the properties map.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class GenericEvent extends BaseEvent {
+    private EventType eventType;
+
+    public GenericEvent(String userId, EventType eventType, Map<String, String> properties) {
+        super(userId);
+        this.eventType = eventType;
+        if (properties != null) {
+            this.properties.putAll(properties);
+        }
+    }
+}
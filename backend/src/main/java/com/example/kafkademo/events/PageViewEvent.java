@@ -4,9 +4,11 @@ import com.example.kafkademo.enums.EventType;
 import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
 
 @Data
 @EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
 public class PageViewEvent extends BaseEvent {
     private String pageUrl;
     private String pageTitle;
@@ -64,7 +64,7 @@ public class PurchaseEvent extends BaseEvent implements EcommerceEvent {
             @JsonProperty("value") BigDecimal value) {
         
         // If value is 0 and we have items, calculate the total from items
-        if (value.compareTo(BigDecimal.ZERO) == 0 && items != null && !items.isEmpty()) {
+        if ((value == null || value.compareTo(BigDecimal.ZERO) == 0) && items != null && !items.isEmpty()) {
             value = items.stream()
                 .map(i -> i.getPrice().multiply(BigDecimal.valueOf(i.getQuantity())))
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
@@ -1,6 +1,8 @@
 package com.example.kafkademo.factory;
 
+import com.example.kafkademo.enums.EventType;
 import com.example.kafkademo.events.AddToCartEvent;
+import com.example.kafkademo.events.GenericEvent;
 import com.example.kafkademo.events.PageViewEvent;
 import com.example.kafkademo.events.PurchaseEvent;
 import com.example.kafkademo.events.interfaces.Event;
@@ -8,6 +10,7 @@ import com.example.kafkademo.product.ItemContext;
 import com.example.kafkademo.user.UserContext;
 
 import java.util.List;
+import java.util.Map;
 
 public class EventFactory {
     public static Event createPageView(UserContext userContext, String pageUrl, String pageTitle) {
@@ -40,4 +43,8 @@ public class EventFactory {
                 .currency(currency)
                 .build();
     }
+
+    public static Event createGeneric(String userId, EventType eventType, Map<String, String> properties) {
+        return new GenericEvent(userId, eventType, properties);
+    }
 }
@@ -26,6 +26,10 @@ public class EventDocument {
     
     @Field("timestamp")
     private long timestamp;
+
+    // BSON date copy of timestamp, the time field of the time-series layout; set only there
+    @Field("event_time")
+    private Instant eventTime;
     
     @Field("properties")
     private Map<String, Object> properties;
@@ -1,113 +0,0 @@
-package com.example.kafkademo.model;
-
-import java.util.List;
-import java.util.Map;
-
-public class UserEvent {
-    private String userId;
-    private String orderId;
-    private List<String> items;
-    private String paymentMethod;
-    private String currency;
-    private Double value;
-    private String eventId;
-    private Long timestamp;
-    private Map<String, Object> properties;
-    private String eventType;
-
-    public String getUserId() {
-        return userId;
-    }
-
-    public void setUserId(String userId) {
-        this.userId = userId;
-    }
-
-    public String getOrderId() {
-        return orderId;
-    }
-
-    public void setOrderId(String orderId) {
-        this.orderId = orderId;
-    }
-
-    public List<String> getItems() {
-        return items;
-    }
-
-    public void setItems(List<String> items) {
-        this.items = items;
-    }
-
-    public String getPaymentMethod() {
-        return paymentMethod;
-    }
-
-    public void setPaymentMethod(String paymentMethod) {
-        this.paymentMethod = paymentMethod;
-    }
-
-    public String getCurrency() {
-        return currency;
-    }
-
-    public void setCurrency(String currency) {
-        this.currency = currency;
-    }
-
-    public Double getValue() {
-        return value;
-    }
-
-    public void setValue(Double value) {
-        this.value = value;
-    }
-
-    public String getEventId() {
-        return eventId;
-    }
-
-    public void setEventId(String eventId) {
-        this.eventId = eventId;
-    }
-
-    public Long getTimestamp() {
-        return timestamp;
-    }
-
-    public void setTimestamp(Long timestamp) {
-        this.timestamp = timestamp;
-    }
-
-    public Map<String, Object> getProperties() {
-        return properties;
-    }
-
-    public void setProperties(Map<String, Object> properties) {
-        this.properties = properties;
-    }
-
-    public String getEventType() {
-        return eventType;
-    }
-
-    public void setEventType(String eventType) {
-        this.eventType = eventType;
-    }
-
-    @Override
-    public String toString() {
-        return "UserEvent{" +
-                "userId='" + userId + '\'' +
-                ", orderId='" + orderId + '\'' +
-                ", items=" + items +
-                ", paymentMethod='" + paymentMethod + '\'' +
-                ", currency='" + currency + '\'' +
-                ", value=" + value +
-                ", eventId='" + eventId + '\'' +
-                ", timestamp=" + timestamp +
-                ", properties=" + properties +
-                ", eventType='" + eventType + '\'' +
-                '}';
-    }
-}
@@ -0,0 +1,53 @@
+package com.example.kafkademo.processor;
+
+import com.example.kafkademo.consumer.KeyOrderedExecutor;
+import com.example.kafkademo.events.interfaces.Event;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the {@code EventProcessor}s of an event tracked with {@code app.ingest.await-ack=true}
+ * in inline mode, so the request thread is released right after the send instead of
+ * processing first. Workers are picked by user, keeping one user's events in order. Once
+ * {@code max-in-flight} events are queued, {@link #submit} blocks the caller until a worker
+ * catches up.
+ */
+@Slf4j
+@Component
+public class InlineEventProcessing implements DisposableBean {
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+
+    private final EventProcessorManager eventProcessorManager;
+    private final KeyOrderedExecutor executor;
+
+    public InlineEventProcessing(EventProcessorManager eventProcessorManager, MeterRegistry meterRegistry,
+                                 @Value("${app.processing.inline.workers:8}") int workers,
+                                 @Value("${app.processing.inline.max-in-flight:10000}") int maxInFlight) {
+        this.eventProcessorManager = eventProcessorManager;
+        this.executor = new KeyOrderedExecutor("inline-processing-", "processing.inline.inflight",
+                workers, maxInFlight, meterRegistry);
+    }
+
+    /**
+     * Queues the event for processing. Failures are only logged: the event is already on
+     * its way to Kafka, so failing the request would make the client send it again.
+     */
+    public void submit(Event event) throws InterruptedException {
+        executor.submit(event.getUserId(), () -> {
+            try {
+                eventProcessorManager.processEvent(event);
+            } catch (RuntimeException e) {
+                log.error("Failed to process {} event {}", event.getEventType(), event.getEventId(), e);
+            }
+        });
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        log.info("Waiting for {} inline events still being processed", executor.inFlight());
+        executor.shutdown(SHUTDOWN_TIMEOUT_MS);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.kafkademo.producer;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.utils.Utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashes keys to partitions like the default partitioner, except for hot keys: a key seen
+ * more than {@code hot-key.threshold} times within {@code hot-key.window-ms} is spread over
+ * {@code hot-key.spread} consecutive partitions starting at its home partition. This keeps
+ * a bot or load-test user from pinning one partition, at the cost of per-key ordering for
+ * that key only while it stays hot.
+ */
+public class HotKeyPartitioner implements Partitioner {
+
+    public static final String THRESHOLD_CONFIG = "hot-key.threshold";
+    public static final String WINDOW_MS_CONFIG = "hot-key.window-ms";
+    public static final String SPREAD_CONFIG = "hot-key.spread";
+    public static final String METRICS_CONFIG = "hot-key.metrics";
+
+    private int threshold;
+    private long windowMs;
+    private int spread;
+    private PartitionSkewMetrics metrics;
+
+    private volatile Window current = new Window(System.currentTimeMillis());
+    private volatile Window previous = current;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        threshold = intConfig(configs, THRESHOLD_CONFIG, 1000);
+        windowMs = intConfig(configs, WINDOW_MS_CONFIG, 1000);
+        spread = intConfig(configs, SPREAD_CONFIG, 3);
+        Object skewMetrics = configs.get(METRICS_CONFIG);
+        metrics = skewMetrics instanceof PartitionSkewMetrics ? (PartitionSkewMetrics) skewMetrics : null;
+    }
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes, Cluster cluster) {
+        int numPartitions = cluster.partitionsForTopic(topic).size();
+        int partition;
+        boolean hot = false;
+        if (keyBytes == null) {
+            partition = ThreadLocalRandom.current().nextInt(numPartitions);
+        } else {
+            partition = Utils.toPositive(Utils.murmur2(keyBytes)) % numPartitions;
+            int width = Math.min(spread, numPartitions);
+            if (threshold > 0 && width > 1 && isHot(key)) {
+                hot = true;
+                partition = (partition + ThreadLocalRandom.current().nextInt(width)) % numPartitions;
+            }
+        }
+        if (metrics != null) {
+            metrics.record(topic, partition, numPartitions, hot);
+        }
+        return partition;
+    }
+
+    private boolean isHot(Object key) {
+        long now = System.currentTimeMillis();
+        Window window = current;
+        if (now - window.start >= windowMs) {
+            window = roll(now);
+        }
+        // A key that was hot in the last window stays spread until it cools down
+        return window.increment(key) > threshold || previous.count(key) > threshold;
+    }
+
+    private synchronized Window roll(long now) {
+        if (now - current.start >= windowMs) {
+            previous = current;
+            current = new Window(now);
+        }
+        return current;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static int intConfig(Map<String, ?> configs, String name, int defaultValue) {
+        Object value = configs.get(name);
+        return value != null ? Integer.parseInt(value.toString()) : defaultValue;
+    }
+
+    private static final class Window {
+        private final long start;
+        private final Map<Object, AtomicInteger> counts = new ConcurrentHashMap<>();
+
+        private Window(long start) {
+            this.start = start;
+        }
+
+        int increment(Object key) {
+            return counts.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        }
+
+        int count(Object key) {
+            AtomicInteger count = counts.get(key);
+            return count != null ? count.get() : 0;
+        }
+    }
+}
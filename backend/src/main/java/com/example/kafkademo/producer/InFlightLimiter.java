@@ -0,0 +1,93 @@
+package com.example.kafkademo.producer;
+
+import com.example.kafkademo.config.AdmissionProperties;
+import com.example.kafkademo.enums.EventType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bounds the number of records handed to the producer that have not been acknowledged yet.
+ * Once the budget is used up callers are turned away immediately instead of parking in
+ * {@code KafkaTemplate.send} until {@code max.block.ms} while the producer buffer is full.
+ */
+@Component
+public class InFlightLimiter {
+
+    private final AdmissionProperties properties;
+    private final Semaphore global;
+    private final Map<EventType, Semaphore> perType = new EnumMap<>(EventType.class);
+    private final Map<EventType, Counter> admitted = new EnumMap<>(EventType.class);
+    private final Map<EventType, Counter> rejected = new EnumMap<>(EventType.class);
+
+    public InFlightLimiter(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.global = new Semaphore(properties.getMaxInFlight());
+        properties.getPerType().forEach((type, budget) -> perType.put(type, new Semaphore(budget)));
+
+        Gauge.builder("ingest.inflight", global, s -> properties.getMaxInFlight() - s.availablePermits())
+                .description("Records sent to Kafka and not yet acknowledged")
+                .tag("type", "all")
+                .register(meterRegistry);
+        perType.forEach((type, semaphore) ->
+                Gauge.builder("ingest.inflight", semaphore, s -> properties.getPerType().get(type) - s.availablePermits())
+                        .description("Records sent to Kafka and not yet acknowledged")
+                        .tag("type", type.name())
+                        .register(meterRegistry));
+        for (EventType type : EventType.values()) {
+            admitted.put(type, Counter.builder("ingest.admission.admitted")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+            rejected.put(type, Counter.builder("ingest.admission.rejected")
+                    .description("Records turned away because the in-flight budget was used up")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Takes one permit for the event type, or throws if its budget or the global one is exhausted.
+     * Every successful call must be paired with {@link #release(EventType)}.
+     */
+    public void acquire(EventType type) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Semaphore typeBudget = perType.get(type);
+        if (typeBudget != null && !typeBudget.tryAcquire()) {
+            reject(type);
+        }
+        if (!global.tryAcquire()) {
+            if (typeBudget != null) {
+                typeBudget.release();
+            }
+            reject(type);
+        }
+        admitted.get(type).increment();
+    }
+
+    public void release(EventType type) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Semaphore typeBudget = perType.get(type);
+        if (typeBudget != null) {
+            typeBudget.release();
+        }
+        global.release();
+    }
+
+    public int inFlight() {
+        return properties.getMaxInFlight() - global.availablePermits();
+    }
+
+    private void reject(EventType type) {
+        rejected.get(type).increment();
+        throw new IngestThrottledException(type, properties.getRetryAfterSeconds());
+    }
+}
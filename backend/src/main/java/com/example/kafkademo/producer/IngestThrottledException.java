@@ -0,0 +1,19 @@
+package com.example.kafkademo.producer;
+
+import com.example.kafkademo.enums.EventType;
+import lombok.Getter;
+
+/**
+ * Thrown instead of handing a record to the producer when its in-flight budget is used up.
+ */
+@Getter
+public class IngestThrottledException extends RuntimeException {
+    private final EventType eventType;
+    private final long retryAfterSeconds;
+
+    public IngestThrottledException(EventType eventType, long retryAfterSeconds) {
+        super("Too many " + eventType + " events in flight, retry after " + retryAfterSeconds + "s");
+        this.eventType = eventType;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
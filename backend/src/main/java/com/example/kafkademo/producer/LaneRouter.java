@@ -0,0 +1,98 @@
+package com.example.kafkademo.producer;
+
+import com.example.kafkademo.config.LaneProperties;
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.events.interfaces.Event;
+import lombok.Value;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Resolves, per event type, the topic and the producer of the lane the type belongs to.
+ * Lanes with their own producer settings get a dedicated producer, so a burst on one
+ * lane cannot queue records of another behind it in the same buffer.
+ */
+public class LaneRouter implements DisposableBean {
+
+    public static final String DEFAULT_LANE = "default";
+    public static final String DEFAULT_TOPIC = "user-events";
+
+    private final Map<EventType, Route> routes = new EnumMap<>(EventType.class);
+    private final Map<String, LaneProperties.Lane> lanes = new LinkedHashMap<>();
+    private final List<ProducerFactory<String, Event>> ownedFactories = new ArrayList<>();
+
+    public LaneRouter(LaneProperties properties, KafkaTemplate<String, Event> defaultTemplate,
+                      Function<LaneProperties.Lane, ProducerFactory<String, Event>> producerFactories) {
+        LaneProperties.Lane defaultLane = properties.getLanes().getOrDefault(DEFAULT_LANE, new LaneProperties.Lane());
+        if (defaultLane.getTopic() == null) {
+            defaultLane.setTopic(DEFAULT_TOPIC);
+        }
+        lanes.put(DEFAULT_LANE, defaultLane);
+        properties.getLanes().forEach((name, lane) -> {
+            if (!DEFAULT_LANE.equals(name)) {
+                if (lane.getTopic() == null) {
+                    throw new IllegalStateException("Lane " + name + " has no topic");
+                }
+                lanes.put(name, lane);
+            }
+        });
+
+        lanes.forEach((name, lane) -> {
+            KafkaTemplate<String, Event> template = defaultTemplate;
+            if (lane.getProfile() != null || !lane.getProducer().isEmpty()) {
+                ProducerFactory<String, Event> factory = producerFactories.apply(lane);
+                ownedFactories.add(factory);
+                template = new KafkaTemplate<>(factory);
+            }
+            Route route = new Route(name, lane.getTopic(), template);
+            if (DEFAULT_LANE.equals(name)) {
+                for (EventType type : EventType.values()) {
+                    routes.putIfAbsent(type, route);
+                }
+            } else {
+                for (EventType type : lane.getEventTypes()) {
+                    Route previous = routes.put(type, route);
+                    if (previous != null && !DEFAULT_LANE.equals(previous.getLane())) {
+                        throw new IllegalStateException("Event type " + type + " is in both lane "
+                                + previous.getLane() + " and lane " + name);
+                    }
+                }
+            }
+        });
+    }
+
+    public Route route(EventType type) {
+        return routes.get(type);
+    }
+
+    public Map<String, LaneProperties.Lane> lanes() {
+        return Collections.unmodifiableMap(lanes);
+    }
+
+    public String[] topicNames() {
+        return lanes.values().stream().map(LaneProperties.Lane::getTopic).distinct().toArray(String[]::new);
+    }
+
+    @Override
+    public void destroy() {
+        for (ProducerFactory<String, Event> factory : ownedFactories) {
+            factory.reset();
+        }
+    }
+
+    @Value
+    public static class Route {
+        String lane;
+        String topic;
+        KafkaTemplate<String, Event> template;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.kafkademo.producer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records how many records the producer assigns to each partition. Besides a counter per
+ * partition it publishes {@code kafka.producer.partition.skew}, the busiest partition's
+ * count divided by the mean (1.0 means perfectly even).
+ */
+@Component
+public class PartitionSkewMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicLongArray> countsByTopic = new ConcurrentHashMap<>();
+    private final Map<String, Counter[]> countersByTopic = new ConcurrentHashMap<>();
+    private final Map<String, Counter> hotKeyCounters = new ConcurrentHashMap<>();
+
+    public PartitionSkewMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(String topic, int partition, int numPartitions, boolean hotKey) {
+        AtomicLongArray counts = countsByTopic.get(topic);
+        if (counts == null || counts.length() < numPartitions) {
+            counts = register(topic, numPartitions);
+        }
+        counts.incrementAndGet(partition);
+        countersByTopic.get(topic)[partition].increment();
+        if (hotKey) {
+            hotKeyCounters.computeIfAbsent(topic, t -> Counter.builder("kafka.producer.hotkey.records")
+                    .description("Records whose key was spread over several partitions")
+                    .tag("topic", t)
+                    .register(meterRegistry)).increment();
+        }
+    }
+
+    public double skew(String topic) {
+        AtomicLongArray counts = countsByTopic.get(topic);
+        if (counts == null) {
+            return 1.0;
+        }
+        long max = 0;
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long count = counts.get(i);
+            max = Math.max(max, count);
+            total += count;
+        }
+        return total == 0 ? 1.0 : max / ((double) total / counts.length());
+    }
+
+    private synchronized AtomicLongArray register(String topic, int numPartitions) {
+        AtomicLongArray existing = countsByTopic.get(topic);
+        if (existing != null && existing.length() >= numPartitions) {
+            return existing;
+        }
+        // Partitions were added: carry the counts over to a larger array
+        AtomicLongArray counts = new AtomicLongArray(numPartitions);
+        Counter[] counters = new Counter[numPartitions];
+        for (int i = 0; i < numPartitions; i++) {
+            if (existing != null && i < existing.length()) {
+                counts.set(i, existing.get(i));
+            }
+            counters[i] = Counter.builder("kafka.producer.partition.records")
+                    .tag("topic", topic)
+                    .tag("partition", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+        countersByTopic.put(topic, counters);
+        countsByTopic.put(topic, counts);
+        if (existing == null) {
+            Gauge.builder("kafka.producer.partition.skew", () -> skew(topic))
+                    .description("Records on the busiest partition relative to the mean")
+                    .tag("topic", topic)
+                    .register(meterRegistry);
+        }
+        return counts;
+    }
+}
@@ -2,19 +2,56 @@ package com.example.kafkademo.producer;
 
 import com.example.kafkademo.events.interfaces.Event;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
+import org.springframework.util.concurrent.ListenableFuture;
 
 @Service
 public class UserEventProducer {
 
     private static final String TOPIC = "user-events";
     private final KafkaTemplate<String, Event> kafkaTemplate;
+    private final InFlightLimiter inFlightLimiter;
+    private final LaneRouter laneRouter;
 
-    public UserEventProducer(KafkaTemplate<String, Event> kafkaTemplate) {
+    public UserEventProducer(KafkaTemplate<String, Event> kafkaTemplate, InFlightLimiter inFlightLimiter,
+                             LaneRouter laneRouter) {
         this.kafkaTemplate = kafkaTemplate;
+        this.inFlightLimiter = inFlightLimiter;
+        this.laneRouter = laneRouter;
     }
 
     public void sendMessage(String key, Event message) {
         kafkaTemplate.send(TOPIC, key, message);
     }
-}
\ No newline at end of file
+
+    /**
+     * Sends the event to the topic of its lane without waiting for the broker. Callers
+     * that send many records in a row can collect the futures and wait once at the end.
+     *
+     * @throws IngestThrottledException if too many records are already waiting for an ack
+     */
+    public ListenableFuture<SendResult<String, Event>> send(Event event) {
+        inFlightLimiter.acquire(event.getEventType());
+        ListenableFuture<SendResult<String, Event>> future;
+        try {
+            LaneRouter.Route route = laneRouter.route(event.getEventType());
+            future = route.getTemplate().send(route.getTopic(), partitionKey(event), event);
+        } catch (RuntimeException e) {
+            inFlightLimiter.release(event.getEventType());
+            throw e;
+        }
+        future.addCallback(
+                result -> inFlightLimiter.release(event.getEventType()),
+                ex -> inFlightLimiter.release(event.getEventType()));
+        return future;
+    }
+
+    /**
+     * Records are keyed by user so each user's events stay in order on one partition
+     * and consumers can keep per-user state locally. Anonymous events fall back to the event id.
+     */
+    static String partitionKey(Event event) {
+        return event.getUserId() != null ? event.getUserId() : event.getEventId();
+    }
+}
@@ -1,13 +1,17 @@
 package com.example.kafkademo.product;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 
 // ItemContext.java
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class ItemContext {
     private String itemId;
     private String itemType;
@@ -0,0 +1,277 @@
+package com.example.kafkademo.repository;
+
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.model.EventDocument;
+import com.mongodb.client.model.IndexOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Packs events into one bucket document per user and hour, holding at most
+ * {@code maxEvents} events; a full bucket is continued in a new one for the same hour.
+ * Only buckets are indexed, so the indexes grow with users × hours rather than with
+ * events, and a user's recent history is a handful of documents. Bucket layout:
+ * <pre>
+ * { u: userId, h: hour start, n: event count, t: [event types],
+ *   ev: [ { i: eventId, y: eventType, ts: epoch millis, p: { properties } } ] }
+ * </pre>
+ * Events are ordered by timestamp and then event id, which is therefore the id in page cursors.
+ */
+@Slf4j
+public class BucketEventStore implements EventStore, InitializingBean {
+
+    public static final String COLLECTION = "user-event-buckets";
+
+    private static final Comparator<EventDocument> NEWEST_FIRST = Comparator
+        .comparingLong(EventDocument::getTimestamp)
+        .thenComparing(EventDocument::getId)
+        .reversed();
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoTemplate readTemplate;
+    private final EventWriteTemplates writeTemplates;
+    private final int maxEvents;
+    private final long ttlDays;
+
+    public BucketEventStore(MongoTemplate mongoTemplate, MongoTemplate readTemplate, EventWriteTemplates writeTemplates,
+                            int maxEvents, long ttlDays) {
+        this.mongoTemplate = mongoTemplate;
+        this.readTemplate = readTemplate;
+        this.writeTemplates = writeTemplates;
+        this.maxEvents = maxEvents;
+        this.ttlDays = ttlDays;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        log.info("Storing events in {} buckets of up to {} events", COLLECTION, maxEvents);
+        mongoTemplate.getCollection(COLLECTION).createIndex(new Document("u", 1).append("h", -1));
+        // Buckets expire as a whole once their hour is older than the retention
+        mongoTemplate.getCollection(COLLECTION).createIndex(new Document("h", 1),
+            new IndexOptions().expireAfter(ttlDays, TimeUnit.DAYS));
+    }
+
+    /**
+     * Appends each event to the open bucket of its user and hour with one upsert per event,
+     * sent as one unordered bulk write per write concern. Events already in any bucket of
+     * their hour, e.g. because the batch was redelivered, are left out. A guard on the open
+     * bucket alone would not do: when it fails to match, the upsert starts a new bucket.
+     */
+    @Override
+    public int insert(List<EventDocument> docs) {
+        if (docs.isEmpty()) {
+            return 0;
+        }
+        docs.forEach(doc -> doc.setId(doc.getEventId()));
+        Set<String> stored = storedEventIds(docs);
+        return GroupedBulkWrite.execute(docs,
+            doc -> stored.contains(doc.getEventId()) ? null : writeTemplates.forType(doc.getEventType()),
+            this::appendAll,
+            result -> result.getModifiedCount() + result.getUpserts().size());
+    }
+
+    private Set<String> storedEventIds(List<EventDocument> docs) {
+        Set<String> eventIds = new HashSet<>();
+        Set<String> users = new HashSet<>();
+        Set<Date> hours = new HashSet<>();
+        for (EventDocument doc : docs) {
+            eventIds.add(doc.getEventId());
+            users.add(doc.getUserId());
+            hours.add(hourOf(doc.getTimestamp()));
+        }
+        // Served by the {u, h} index; on the primary so just-stored events are seen
+        Document filter = new Document("u", new Document("$in", users))
+            .append("h", new Document("$in", hours))
+            .append("ev.i", new Document("$in", eventIds));
+        Set<String> stored = new HashSet<>();
+        for (Document bucket : mongoTemplate.getCollection(COLLECTION).find(filter).projection(new Document("ev.i", 1))) {
+            for (Document entry : bucket.getList("ev", Document.class)) {
+                if (eventIds.contains(entry.getString("i"))) {
+                    stored.add(entry.getString("i"));
+                }
+            }
+        }
+        return stored;
+    }
+
+    private BulkOperations appendAll(MongoTemplate template, List<EventDocument> docs) {
+        BulkOperations bulk = template.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+        for (EventDocument doc : docs) {
+            Document entry = new Document("i", doc.getEventId())
+                .append("y", doc.getEventType().name())
+                .append("ts", doc.getTimestamp())
+                .append("p", doc.getProperties());
+            Query openBucket = new Query(Criteria.where("u").is(doc.getUserId())
+                .and("h").is(hourOf(doc.getTimestamp()))
+                .and("n").lt(maxEvents));
+            bulk.upsert(openBucket, new Update()
+                .push("ev", entry)
+                .inc("n", 1)
+                .addToSet("t", doc.getEventType().name()));
+        }
+        return bulk;
+    }
+
+    @Override
+    public List<EventDocument> find(EventQuery query, int limit) {
+        return find(query, limit, readTemplate);
+    }
+
+    @Override
+    public List<EventDocument> findOnPrimary(EventQuery query, int limit) {
+        return find(query, limit, mongoTemplate);
+    }
+
+    private List<EventDocument> find(EventQuery query, int limit, MongoTemplate template) {
+        try (Stream<EventDocument> events = stream(query, template)) {
+            return events.limit(limit).collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public Stream<EventDocument> stream(EventQuery query) {
+        return stream(query, readTemplate);
+    }
+
+    private Stream<EventDocument> stream(EventQuery query, MongoTemplate template) {
+        Document filter = new Document("u", query.getUserId());
+        if (query.getEventType() != null) {
+            filter.append("t", query.getEventType().name());
+        }
+        Document hours = new Document();
+        if (query.getFrom() != null) {
+            hours.append("$gte", hourOf(query.getFrom()));
+        }
+        Long newest = query.getTo();
+        if (query.getAfter() != null) {
+            newest = newest != null ? Math.min(newest, query.getAfter().getTimestamp() + 1) : query.getAfter().getTimestamp() + 1;
+        }
+        if (newest != null) {
+            hours.append("$lte", hourOf(newest));
+        }
+        if (!hours.isEmpty()) {
+            filter.append("h", hours);
+        }
+        // Through the template so its read preference applies
+        CloseableIterator<Document> cursor = template.stream(
+            new BasicQuery(filter).with(Sort.by(Sort.Direction.DESC, "h")), Document.class, COLLECTION);
+        BucketIterator events = new BucketIterator(cursor, query);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(events, Spliterator.ORDERED), false)
+            .onClose(cursor::close);
+    }
+
+    @Override
+    public void clear() {
+        mongoTemplate.getCollection(COLLECTION).deleteMany(new Document());
+    }
+
+    private static Date hourOf(long timestamp) {
+        return Date.from(Instant.ofEpochMilli(timestamp).truncatedTo(ChronoUnit.HOURS));
+    }
+
+    /**
+     * Unpacks buckets newest hour first. All buckets of one hour are merged and sorted
+     * before any of their events is returned, since a full bucket's successor overlaps it in time.
+     */
+    private static final class BucketIterator implements Iterator<EventDocument> {
+        private final CloseableIterator<Document> cursor;
+        private final EventQuery query;
+        private final Deque<EventDocument> buffer = new ArrayDeque<>();
+        private Document pending;
+
+        BucketIterator(CloseableIterator<Document> cursor, EventQuery query) {
+            this.cursor = cursor;
+            this.query = query;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (buffer.isEmpty() && (pending != null || cursor.hasNext())) {
+                Document bucket = pending != null ? pending : cursor.next();
+                pending = null;
+                Date hour = bucket.getDate("h");
+                List<EventDocument> events = new ArrayList<>();
+                unpack(bucket, events);
+                while (cursor.hasNext()) {
+                    Document next = cursor.next();
+                    if (!hour.equals(next.getDate("h"))) {
+                        pending = next;
+                        break;
+                    }
+                    unpack(next, events);
+                }
+                events.sort(NEWEST_FIRST);
+                buffer.addAll(events);
+            }
+            return !buffer.isEmpty();
+        }
+
+        @Override
+        public EventDocument next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return buffer.poll();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void unpack(Document bucket, List<EventDocument> events) {
+            String userId = bucket.getString("u");
+            for (Document entry : bucket.getList("ev", Document.class)) {
+                EventType type = EventType.valueOf(entry.getString("y"));
+                long timestamp = entry.getLong("ts");
+                String eventId = entry.getString("i");
+                if (matches(type, timestamp, eventId)) {
+                    EventDocument doc = new EventDocument(eventId, userId, type, timestamp,
+                        (Map<String, Object>) entry.get("p"));
+                    doc.setId(eventId);
+                    events.add(doc);
+                }
+            }
+        }
+
+        private boolean matches(EventType type, long timestamp, String eventId) {
+            if (query.getEventType() != null && query.getEventType() != type) {
+                return false;
+            }
+            if (query.getFrom() != null && timestamp < query.getFrom()) {
+                return false;
+            }
+            if (query.getTo() != null && timestamp >= query.getTo()) {
+                return false;
+            }
+            EventCursor after = query.getAfter();
+            return after == null || timestamp < after.getTimestamp()
+                || (timestamp == after.getTimestamp() && eventId.compareTo(after.getId()) < 0);
+        }
+    }
+}
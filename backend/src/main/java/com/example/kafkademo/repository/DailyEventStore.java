@@ -0,0 +1,213 @@
+package com.example.kafkademo.repository;
+
+import com.example.kafkademo.model.EventDocument;
+import com.mongodb.bulk.BulkWriteResult;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.StreamUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * One collection of {@link EventDocument}s per UTC day of the event timestamp, named
+ * {@code user-events-2026-10-18}. Reads only touch the days their time range covers, and
+ * retention and clearing drop whole collections instead of deleting documents one by one,
+ * so neither competes with ingest for write capacity.
+ */
+@Slf4j
+public class DailyEventStore implements EventStore, InitializingBean {
+
+    private static final Comparator<String> NEWEST_DAY_FIRST = Comparator.<String>naturalOrder().reversed();
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoTemplate readTemplate;
+    private final EventWriteTemplates writeTemplates;
+    private final ReactiveMongoTemplate reactiveTemplate;
+    private final String prefix;
+    private final long retentionDays;
+    // Days whose collection is known to exist with its indexes
+    private final Set<String> prepared = ConcurrentHashMap.newKeySet();
+
+    public DailyEventStore(MongoTemplate mongoTemplate, MongoTemplate readTemplate, EventWriteTemplates writeTemplates,
+                           ReactiveMongoTemplate reactiveTemplate, long retentionDays) {
+        this.mongoTemplate = mongoTemplate;
+        this.readTemplate = readTemplate;
+        this.writeTemplates = writeTemplates;
+        this.reactiveTemplate = reactiveTemplate;
+        this.prefix = mongoTemplate.getCollectionName(EventDocument.class) + "-";
+        this.retentionDays = retentionDays;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        log.info("Storing events in one {}YYYY-MM-DD collection per day, kept for {} days", prefix, retentionDays);
+        dropExpiredDays();
+    }
+
+    /**
+     * Inserts the documents with one unordered bulk write per day and write concern, usually
+     * just one.
+     */
+    @Override
+    public int insert(List<EventDocument> docs) {
+        if (docs.isEmpty()) {
+            return 0;
+        }
+        // Event ids as document ids: a redelivered event fails with a duplicate key error
+        DocumentEventStore.assignIds(docs);
+        return GroupedBulkWrite.execute(docs,
+            doc -> Map.entry(collectionFor(doc.getTimestamp()), writeTemplates.forType(doc.getEventType())),
+            (target, group) -> {
+                prepare(target.getKey());
+                return target.getValue().bulkOps(BulkOperations.BulkMode.UNORDERED, EventDocument.class, target.getKey())
+                    .insert(group);
+            },
+            BulkWriteResult::getInsertedCount);
+    }
+
+    @Override
+    public List<EventDocument> find(EventQuery query, int limit) {
+        return find(query, limit, readTemplate);
+    }
+
+    @Override
+    public List<EventDocument> findOnPrimary(EventQuery query, int limit) {
+        return find(query, limit, mongoTemplate);
+    }
+
+    private List<EventDocument> find(EventQuery query, int limit, MongoTemplate template) {
+        List<EventDocument> found = new ArrayList<>();
+        for (String day : daysFor(query)) {
+            if (found.size() >= limit) {
+                break;
+            }
+            Query page = DocumentEventStore.toQuery(query).limit(limit - found.size());
+            found.addAll(template.find(page, EventDocument.class, day));
+        }
+        return found;
+    }
+
+    @Override
+    public Stream<EventDocument> stream(EventQuery query) {
+        Query mongoQuery = DocumentEventStore.toQuery(query);
+        // flatMap opens each day's cursor only once the previous day is exhausted
+        return daysFor(query).stream()
+            .flatMap(day -> StreamUtils.createStreamFromIterator(
+                readTemplate.stream(mongoQuery, EventDocument.class, day)));
+    }
+
+    /**
+     * Queries the days one after the other, each only once the previous one is exhausted.
+     * Listing the day collections is the one blocking call and runs on the scheduler.
+     */
+    @Override
+    public Flux<EventDocument> flux(EventQuery query, Scheduler scheduler) {
+        Query mongoQuery = DocumentEventStore.toQuery(query);
+        return Mono.fromCallable(() -> daysFor(query))
+            .subscribeOn(scheduler)
+            .flatMapIterable(days -> days)
+            .concatMap(day -> reactiveTemplate.find(mongoQuery, EventDocument.class, day))
+            .publishOn(scheduler);
+    }
+
+    @Override
+    public void clear() {
+        for (String day : existingDays()) {
+            mongoTemplate.dropCollection(day);
+            prepared.remove(day);
+        }
+    }
+
+    /**
+     * Drops the collections of days that have fully passed the retention period.
+     */
+    @Scheduled(cron = "${app.persistence.daily.retention-cron:0 5 0 * * *}", zone = "UTC")
+    public void dropExpiredDays() {
+        String oldestKept = prefix + LocalDate.now(ZoneOffset.UTC).minusDays(retentionDays);
+        for (String day : existingDays()) {
+            if (day.compareTo(oldestKept) < 0) {
+                log.info("Dropping expired event collection {}", day);
+                mongoTemplate.dropCollection(day);
+                prepared.remove(day);
+            }
+        }
+    }
+
+    /**
+     * The existing day collections that can hold events matching the query, newest first.
+     * Without a lower bound this is every retained day.
+     */
+    private List<String> daysFor(EventQuery query) {
+        Long newest = query.getTo() != null ? Long.valueOf(query.getTo() - 1) : null;
+        if (query.getAfter() != null) {
+            long after = query.getAfter().getTimestamp();
+            newest = newest != null ? Math.min(newest, after) : after;
+        }
+        String last = newest != null ? collectionFor(newest) : null;
+        String first = query.getFrom() != null ? collectionFor(query.getFrom()) : null;
+        return existingDays().stream()
+            .filter(day -> (first == null || day.compareTo(first) >= 0) && (last == null || day.compareTo(last) <= 0))
+            .sorted(NEWEST_DAY_FIRST)
+            .collect(Collectors.toList());
+    }
+
+    private List<String> existingDays() {
+        return mongoTemplate.getCollectionNames().stream()
+            .filter(this::isDayCollection)
+            .collect(Collectors.toList());
+    }
+
+    private boolean isDayCollection(String name) {
+        if (!name.startsWith(prefix)) {
+            return false;
+        }
+        try {
+            LocalDate.parse(name.substring(prefix.length()));
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates the read indexes the first time a day is written to. The collection itself is
+     * created by the first insert.
+     */
+    private void prepare(String day) {
+        if (prepared.contains(day)) {
+            return;
+        }
+        mongoTemplate.getCollection(day).createIndex(new Document("user_id", 1)
+            .append("event_type", 1)
+            .append("timestamp", -1)
+            .append("_id", -1));
+        mongoTemplate.getCollection(day).createIndex(new Document("user_id", 1)
+            .append("timestamp", -1)
+            .append("_id", -1));
+        prepared.add(day);
+    }
+
+    private String collectionFor(long timestamp) {
+        return prefix + LocalDate.ofInstant(Instant.ofEpochMilli(timestamp), ZoneOffset.UTC);
+    }
+}
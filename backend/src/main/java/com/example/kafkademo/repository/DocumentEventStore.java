@@ -0,0 +1,130 @@
+package com.example.kafkademo.repository;
+
+import com.example.kafkademo.dto.EventView;
+import com.example.kafkademo.model.EventDocument;
+import com.mongodb.bulk.BulkWriteResult;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.StreamUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * One document per event in the {@link EventDocument} collection, regular or time-series.
+ * Reads seek on {@code (timestamp, _id)} through the indexes {@code MongoIndexManager} keeps.
+ * The event id is the document id, so storing a redelivered event again fails with a
+ * duplicate key error. Time-series collections do not enforce unique ids; there events that
+ * are already stored are looked up and left out instead.
+ */
+@RequiredArgsConstructor
+public class DocumentEventStore implements EventStore {
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoTemplate readTemplate;
+    private final EventWriteTemplates writeTemplates;
+    private final ReactiveMongoTemplate reactiveTemplate;
+    private final boolean timeSeries;
+
+    @Override
+    public int insert(List<EventDocument> docs) {
+        if (docs.isEmpty()) {
+            return 0;
+        }
+        assignIds(docs);
+        if (timeSeries) {
+            // The time field; other layouts would only store a second copy of timestamp
+            docs.forEach(doc -> doc.setEventTime(Instant.ofEpochMilli(doc.getTimestamp())));
+        }
+        Set<String> stored = timeSeries ? storedEventIds(docs) : Set.of();
+        return GroupedBulkWrite.execute(docs,
+            doc -> stored.contains(doc.getEventId()) ? null : writeTemplates.forType(doc.getEventType()),
+            (template, group) -> template.bulkOps(BulkOperations.BulkMode.UNORDERED, EventDocument.class).insert(group),
+            BulkWriteResult::getInsertedCount);
+    }
+
+    @Override
+    public List<EventDocument> find(EventQuery query, int limit) {
+        return readTemplate.find(toQuery(query).limit(limit), EventDocument.class);
+    }
+
+    @Override
+    public List<EventDocument> findOnPrimary(EventQuery query, int limit) {
+        return mongoTemplate.find(toQuery(query).limit(limit), EventDocument.class);
+    }
+
+    @Override
+    public Stream<EventDocument> stream(EventQuery query) {
+        return StreamUtils.createStreamFromIterator(readTemplate.stream(toQuery(query), EventDocument.class));
+    }
+
+    @Override
+    public Flux<EventDocument> flux(EventQuery query, Scheduler scheduler) {
+        return reactiveTemplate.find(toQuery(query), EventDocument.class).publishOn(scheduler);
+    }
+
+    @Override
+    public void clear() {
+        mongoTemplate.remove(new Query(), EventDocument.class);
+    }
+
+    /**
+     * Uses the event id as document id. Ids are assigned here so the cache and page cursors
+     * can use them without a read back.
+     */
+    static void assignIds(List<EventDocument> docs) {
+        for (EventDocument doc : docs) {
+            if (doc.getId() == null) {
+                doc.setId(doc.getEventId() != null ? doc.getEventId() : new ObjectId().toHexString());
+            }
+        }
+    }
+
+    private Set<String> storedEventIds(List<EventDocument> docs) {
+        List<String> eventIds = docs.stream().map(EventDocument::getEventId).collect(Collectors.toList());
+        // On the primary: a lagging secondary could miss events stored moments ago
+        return new HashSet<>(mongoTemplate.findDistinct(new Query(Criteria.where("eventId").in(eventIds)),
+            "eventId", EventDocument.class, String.class));
+    }
+
+    static Query toQuery(EventQuery eventQuery) {
+        Criteria criteria = Criteria.where("userId").is(eventQuery.getUserId());
+        if (eventQuery.getEventType() != null) {
+            criteria.and("eventType").is(eventQuery.getEventType());
+        }
+        if (eventQuery.hasTimeRange()) {
+            Criteria timestamp = criteria.and("timestamp");
+            if (eventQuery.getFrom() != null) {
+                timestamp.gte(eventQuery.getFrom());
+            }
+            if (eventQuery.getTo() != null) {
+                timestamp.lt(eventQuery.getTo());
+            }
+        }
+        EventCursor after = eventQuery.getAfter();
+        if (after != null) {
+            criteria.orOperator(
+                Criteria.where("timestamp").lt(after.getTimestamp()),
+                new Criteria().andOperator(
+                    Criteria.where("timestamp").is(after.getTimestamp()),
+                    Criteria.where("id").lt(after.getId())));
+        }
+        Query query = new Query(criteria)
+            .with(Sort.by(Sort.Direction.DESC, "timestamp", "id"));
+        // Only what EventView returns; _id is kept for the page cursor
+        query.fields().include(EventView.FIELDS);
+        return query;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.kafkademo.repository;
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last event of a page: its timestamp and id, which together order
+ * events uniquely. Clients only see the encoded token; what the id is depends on the
+ * {@link EventStore} layout.
+ */
+@Value
+public class EventCursor {
+    long timestamp;
+    String id;
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((timestamp + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static EventCursor decode(String token) {
+        String value;
+        try {
+            value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        int separator = value.indexOf(':');
+        if (separator < 1 || separator == value.length() - 1) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        try {
+            return new EventCursor(Long.parseLong(value.substring(0, separator)), value.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.kafkademo.repository;
+
+import com.example.kafkademo.enums.EventType;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * A read of one user's events, newest first. All filters but {@code userId} are optional;
+ * the time range is {@code [from, to)} in epoch milliseconds.
+ */
+@Value
+@Builder
+public class EventQuery {
+    String userId;
+    EventType eventType;
+    Long from;
+    Long to;
+    // Continue after this event
+    EventCursor after;
+
+    public boolean hasTimeRange() {
+        return from != null || to != null;
+    }
+}
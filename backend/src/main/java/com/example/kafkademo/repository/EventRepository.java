@@ -13,8 +13,4 @@ public interface EventRepository extends MongoRepository<EventDocument, String>
     List<EventDocument> findByUserId(String userId);
     
     List<EventDocument> findByUserIdAndEventType(String userId, EventType eventType);
-    
-    List<EventDocument> findByEventType(EventType eventType);
-    
-    List<EventDocument> findByTimestampBetween(long startTime, long endTime);
 }
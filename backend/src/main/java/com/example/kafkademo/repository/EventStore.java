@@ -0,0 +1,54 @@
+package com.example.kafkademo.repository;
+
+import com.example.kafkademo.model.EventDocument;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Physical layout of stored events. Callers always work with {@link EventDocument}s;
+ * how they are laid out in MongoDB is up to the implementation chosen with
+ * {@code app.persistence.layout}.
+ */
+public interface EventStore {
+
+    /**
+     * Stores the documents in one round trip and assigns their ids. A partial failure is
+     * reported as a {@code BulkOperationException} whose error indexes refer to {@code docs}.
+     *
+     * @return the number of documents stored
+     */
+    int insert(List<EventDocument> docs);
+
+    /**
+     * Up to {@code limit} matching events, newest first.
+     */
+    List<EventDocument> find(EventQuery query, int limit);
+
+    /**
+     * Like {@link #find}, but read from the primary, for callers that must see events stored
+     * moments ago rather than what a lagging secondary holds.
+     */
+    List<EventDocument> findOnPrimary(EventQuery query, int limit);
+
+    /**
+     * All matching events, newest first, read lazily. The caller must close the stream.
+     */
+    Stream<EventDocument> stream(EventQuery query);
+
+    /**
+     * All matching events, newest first, emitted on {@code scheduler} as the subscriber
+     * requests them. By default this runs {@link #stream} on the scheduler; stores that can
+     * query without blocking a thread override it.
+     */
+    default Flux<EventDocument> flux(EventQuery query, Scheduler scheduler) {
+        return Flux.fromStream(() -> stream(query)).subscribeOn(scheduler);
+    }
+
+    /**
+     * Removes every stored event.
+     */
+    void clear();
+}
@@ -0,0 +1,35 @@
+package com.example.kafkademo.repository;
+
+import com.example.kafkademo.enums.EventType;
+import com.mongodb.WriteConcern;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Templates for event inserts, one per write concern in use, so cheap high-volume types
+ * can be acknowledged by the primary alone while purchases wait for a majority. All of
+ * them share the connection pool and mapping of the base template.
+ */
+public class EventWriteTemplates {
+
+    private final Map<EventType, MongoTemplate> byType = new EnumMap<>(EventType.class);
+
+    public EventWriteTemplates(MongoTemplate base, WriteConcern defaultConcern, Map<EventType, WriteConcern> concerns) {
+        Map<WriteConcern, MongoTemplate> byConcern = new HashMap<>();
+        for (EventType type : EventType.values()) {
+            WriteConcern concern = concerns.getOrDefault(type, defaultConcern);
+            byType.put(type, byConcern.computeIfAbsent(concern, wc -> {
+                MongoTemplate template = new MongoTemplate(base.getMongoDatabaseFactory(), base.getConverter());
+                template.setWriteConcern(wc);
+                return template;
+            }));
+        }
+    }
+
+    public MongoTemplate forType(EventType type) {
+        return byType.get(type);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.kafkademo.repository;
+
+import com.example.kafkademo.model.EventDocument;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Writes documents that need different collections or write concerns with one unordered
+ * bulk per group, leaving out documents that are already stored. A partial failure is
+ * reported as one {@link BulkOperationException} whose error indexes refer to the full list,
+ * as if it had been a single bulk.
+ */
+final class GroupedBulkWrite {
+
+    private GroupedBulkWrite() {
+    }
+
+    /**
+     * @param groupBy what a document's bulk depends on; documents with equal keys share a bulk,
+     *                and a {@code null} key leaves the document out
+     * @param prepare builds the bulk of one group, ready to execute
+     * @param count   the number of documents a bulk result stands for
+     */
+    static <K> int execute(List<EventDocument> docs, Function<EventDocument, K> groupBy,
+                           BiFunction<K, List<EventDocument>, BulkOperations> prepare,
+                           ToIntFunction<BulkWriteResult> count) {
+        Map<K, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < docs.size(); i++) {
+            K key = groupBy.apply(docs.get(i));
+            if (key != null) {
+                groups.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+        }
+        if (groups.isEmpty()) {
+            return 0;
+        }
+        if (groups.size() == 1 && groups.values().iterator().next().size() == docs.size()) {
+            // The usual case: indexes already refer to docs
+            return count.applyAsInt(prepare.apply(groups.keySet().iterator().next(), docs).execute());
+        }
+        int written = 0;
+        List<BulkWriteError> errors = new ArrayList<>();
+        for (Map.Entry<K, List<Integer>> group : groups.entrySet()) {
+            List<Integer> indexes = group.getValue();
+            List<EventDocument> groupDocs = indexes.stream().map(docs::get).collect(Collectors.toList());
+            try {
+                written += count.applyAsInt(prepare.apply(group.getKey(), groupDocs).execute());
+            } catch (BulkOperationException e) {
+                written += count.applyAsInt(e.getResult());
+                for (BulkWriteError error : e.getErrors()) {
+                    errors.add(new BulkWriteError(error.getCode(), error.getMessage(), error.getDetails(),
+                        indexes.get(error.getIndex())));
+                }
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new BulkOperationException("Bulk write failed for " + errors.size() + " of " + docs.size() + " events",
+                errors, BulkWriteResult.acknowledged(written, 0, 0, 0, Collections.emptyList()));
+        }
+        return written;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.kafkademo.serialization;
+
+import com.example.kafkademo.events.interfaces.Event;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads records written by {@link AvroEventSerializer}. The writer schema is looked up by
+ * the fingerprint in the header and resolved against the local schema of the same name,
+ * so producers may run a newer, compatible schema than this consumer.
+ */
+public class AvroEventDeserializer implements Deserializer<Event> {
+
+    private final SchemaResolver schemaResolver;
+    private final AvroEventMapper mapper;
+    private final Map<Long, DatumReader<GenericRecord>> readers = new ConcurrentHashMap<>();
+
+    public AvroEventDeserializer(SchemaResolver schemaResolver) {
+        this.schemaResolver = schemaResolver;
+        this.mapper = new AvroEventMapper(schemaResolver);
+    }
+
+    @Override
+    public Event deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length < AvroEventSerializer.HEADER_LENGTH
+                || data[0] != AvroEventSerializer.MARKER_0 || data[1] != AvroEventSerializer.MARKER_1) {
+            throw new SerializationException("Record on " + topic + " is not an Avro single-object encoded event");
+        }
+        long fingerprint = 0;
+        for (int i = 0; i < 8; i++) {
+            fingerprint |= (data[2 + i] & 0xFFL) << (8 * i);
+        }
+        try {
+            BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(data, AvroEventSerializer.HEADER_LENGTH,
+                    data.length - AvroEventSerializer.HEADER_LENGTH, null);
+            return mapper.fromRecord(readerFor(fingerprint).read(null, decoder));
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Failed to read Avro event from " + topic, e);
+        }
+    }
+
+    private DatumReader<GenericRecord> readerFor(long fingerprint) {
+        DatumReader<GenericRecord> reader = readers.get(fingerprint);
+        if (reader != null) {
+            return reader;
+        }
+        Schema writer = schemaResolver.resolve(fingerprint);
+        if (writer == null) {
+            throw new SerializationException("Unknown Avro schema fingerprint " + Long.toHexString(fingerprint));
+        }
+        Schema local;
+        try {
+            local = schemaResolver.writerSchema(writer.getFullName());
+        } catch (IllegalArgumentException e) {
+            local = writer;
+        }
+        reader = new GenericDatumReader<>(writer, local);
+        readers.put(fingerprint, reader);
+        return reader;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.kafkademo.serialization;
+
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.events.AddToCartEvent;
+import com.example.kafkademo.events.BaseEvent;
+import com.example.kafkademo.events.GenericEvent;
+import com.example.kafkademo.events.PageViewEvent;
+import com.example.kafkademo.events.PurchaseEvent;
+import com.example.kafkademo.events.interfaces.Event;
+import com.example.kafkademo.product.ItemContext;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps events to and from the generic records described by the {@code avro/wire} schemas.
+ */
+public class AvroEventMapper {
+
+    static final String NAMESPACE = "com.example.kafkademo.avro.wire.";
+
+    private final Schema item;
+    private final Schema pageView;
+    private final Schema addToCart;
+    private final Schema purchase;
+    private final Schema generic;
+
+    public AvroEventMapper(SchemaResolver schemaResolver) {
+        this.item = schemaResolver.writerSchema(NAMESPACE + "Item");
+        this.pageView = schemaResolver.writerSchema(NAMESPACE + "PageView");
+        this.addToCart = schemaResolver.writerSchema(NAMESPACE + "AddToCart");
+        this.purchase = schemaResolver.writerSchema(NAMESPACE + "Purchase");
+        this.generic = schemaResolver.writerSchema(NAMESPACE + "GenericEvent");
+    }
+
+    public GenericRecord toRecord(Event event) {
+        GenericRecord record;
+        if (event instanceof PageViewEvent) {
+            PageViewEvent view = (PageViewEvent) event;
+            record = new GenericData.Record(pageView);
+            record.put("pageUrl", view.getPageUrl());
+            record.put("pageTitle", view.getPageTitle());
+            record.put("referrer", view.getReferrer());
+        } else if (event instanceof AddToCartEvent) {
+            AddToCartEvent cart = (AddToCartEvent) event;
+            record = new GenericData.Record(addToCart);
+            record.put("item", cart.getItem() != null ? toRecord(cart.getItem()) : null);
+            record.put("value", decimal(cart.getValue()));
+            record.put("currency", cart.getCurrency());
+        } else if (event instanceof PurchaseEvent) {
+            PurchaseEvent order = (PurchaseEvent) event;
+            record = new GenericData.Record(purchase);
+            record.put("orderId", order.getOrderId());
+            record.put("paymentMethod", order.getPaymentMethod());
+            record.put("currency", order.getCurrency());
+            record.put("value", decimal(order.getValue()));
+            List<GenericRecord> items = new ArrayList<>();
+            if (order.getItems() != null) {
+                for (ItemContext orderItem : order.getItems()) {
+                    items.add(toRecord(orderItem));
+                }
+            }
+            record.put("items", items);
+        } else {
+            record = new GenericData.Record(generic);
+            record.put("eventType", event.getEventType().name());
+        }
+        record.put("eventId", event.getEventId());
+        record.put("userId", event.getUserId());
+        record.put("timestamp", event.getTimestamp());
+        record.put("properties", properties(event.getProperties()));
+        return record;
+    }
+
+    public Event fromRecord(GenericRecord record) {
+        BaseEvent event;
+        switch (record.getSchema().getName()) {
+            case "PageView":
+                PageViewEvent view = new PageViewEvent();
+                view.setPageUrl(string(record.get("pageUrl")));
+                view.setPageTitle(string(record.get("pageTitle")));
+                view.setReferrer(string(record.get("referrer")));
+                event = view;
+                break;
+            case "AddToCart":
+                AddToCartEvent cart = new AddToCartEvent();
+                Object cartItem = record.get("item");
+                cart.setItem(cartItem != null ? toItem((GenericRecord) cartItem) : null);
+                cart.setValue(decimal(record.get("value")));
+                cart.setCurrency(string(record.get("currency")));
+                event = cart;
+                break;
+            case "Purchase":
+                PurchaseEvent order = new PurchaseEvent();
+                order.setOrderId(string(record.get("orderId")));
+                order.setPaymentMethod(string(record.get("paymentMethod")));
+                order.setCurrency(string(record.get("currency")));
+                order.setValue(decimal(record.get("value")));
+                List<ItemContext> items = new ArrayList<>();
+                for (Object orderItem : (List<?>) record.get("items")) {
+                    items.add(toItem((GenericRecord) orderItem));
+                }
+                order.setItems(items);
+                event = order;
+                break;
+            case "GenericEvent":
+                GenericEvent genericEvent = new GenericEvent();
+                genericEvent.setEventType(EventType.valueOf(string(record.get("eventType"))));
+                event = genericEvent;
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported Avro record " + record.getSchema().getFullName());
+        }
+        event.setEventId(string(record.get("eventId")));
+        event.setUserId(string(record.get("userId")));
+        event.setTimestamp((Long) record.get("timestamp"));
+        event.setProperties(stringMap(record.get("properties")));
+        return event;
+    }
+
+    private GenericRecord toRecord(ItemContext source) {
+        GenericRecord record = new GenericData.Record(item);
+        record.put("itemId", source.getItemId());
+        record.put("itemType", source.getItemType());
+        record.put("category", source.getCategory());
+        record.put("sku", source.getSku());
+        record.put("name", source.getName());
+        record.put("price", decimal(source.getPrice()));
+        record.put("currency", source.getCurrency());
+        record.put("quantity", source.getQuantity());
+        return record;
+    }
+
+    private static ItemContext toItem(GenericRecord record) {
+        return ItemContext.builder()
+                .itemId(string(record.get("itemId")))
+                .itemType(string(record.get("itemType")))
+                .category(string(record.get("category")))
+                .sku(string(record.get("sku")))
+                .name(string(record.get("name")))
+                .price(decimal(record.get("price")))
+                .currency(string(record.get("currency")))
+                .quantity((Integer) record.get("quantity"))
+                .build();
+    }
+
+    private static String decimal(BigDecimal value) {
+        return value != null ? value.toPlainString() : null;
+    }
+
+    private static BigDecimal decimal(Object value) {
+        return value != null ? new BigDecimal(value.toString()) : null;
+    }
+
+    // Avro hands strings back as Utf8
+    private static String string(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * The map values of the wire schemas are not nullable, so properties set to {@code null}
+     * are left out; reading the record back yields no entry, which {@code getProperty} sees
+     * the same way.
+     */
+    private static Map<String, String> properties(Map<String, String> properties) {
+        if (properties == null) {
+            return Map.of();
+        }
+        if (!properties.containsValue(null)) {
+            return properties;
+        }
+        Map<String, String> present = new HashMap<>();
+        properties.forEach((key, value) -> {
+            if (value != null) {
+                present.put(key, value);
+            }
+        });
+        return present;
+    }
+
+    private static Map<String, String> stringMap(Object value) {
+        Map<String, String> result = new HashMap<>();
+        if (value != null) {
+            ((Map<?, ?>) value).forEach((k, v) -> result.put(k.toString(), string(v)));
+        }
+        return result;
+    }
+}
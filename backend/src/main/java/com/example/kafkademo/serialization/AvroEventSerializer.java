@@ -0,0 +1,63 @@
+package com.example.kafkademo.serialization;
+
+import com.example.kafkademo.events.interfaces.Event;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes events as Avro binary using the single-object encoding layout: a two-byte
+ * marker, the little-endian 64-bit fingerprint of the writer schema, then the datum.
+ */
+public class AvroEventSerializer implements Serializer<Event> {
+
+    static final byte MARKER_0 = (byte) 0xC3;
+    static final byte MARKER_1 = (byte) 0x01;
+    static final int HEADER_LENGTH = 10;
+
+    private final SchemaResolver schemaResolver;
+    private final AvroEventMapper mapper;
+    private final Map<String, DatumWriter<GenericRecord>> writers = new ConcurrentHashMap<>();
+    private final Map<String, Long> fingerprints = new ConcurrentHashMap<>();
+
+    public AvroEventSerializer(SchemaResolver schemaResolver) {
+        this.schemaResolver = schemaResolver;
+        this.mapper = new AvroEventMapper(schemaResolver);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Event event) {
+        if (event == null) {
+            return null;
+        }
+        GenericRecord record = mapper.toRecord(event);
+        Schema schema = record.getSchema();
+        long fingerprint = fingerprints.computeIfAbsent(schema.getFullName(), name -> schemaResolver.fingerprint(schema));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        out.write(MARKER_0);
+        out.write(MARKER_1);
+        for (int i = 0; i < 8; i++) {
+            out.write((int) (fingerprint >>> (8 * i)));
+        }
+        try {
+            BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+            writers.computeIfAbsent(schema.getFullName(), name -> new GenericDatumWriter<>(schema))
+                    .write(record, encoder);
+            encoder.flush();
+        } catch (IOException e) {
+            throw new SerializationException("Failed to write " + schema.getName() + " event " + event.getEventId(), e);
+        }
+        return out.toByteArray();
+    }
+}
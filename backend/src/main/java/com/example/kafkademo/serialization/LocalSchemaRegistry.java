@@ -0,0 +1,58 @@
+package com.example.kafkademo.serialization;
+
+import org.apache.avro.Schema;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process stand-in for a schema registry, preloaded with the schemas bundled under
+ * {@code avro/wire}. Fingerprints are derived from the schemas themselves, so every
+ * instance of the application resolves them the same way without a shared service.
+ */
+@Component
+public class LocalSchemaRegistry implements SchemaResolver {
+
+    // Item comes first: the event schemas refer to it by name
+    private static final String[] BUNDLED_SCHEMAS = {
+            "item", "page-view", "add-to-cart", "purchase", "generic-event"
+    };
+
+    private final Map<String, Schema> byName = new ConcurrentHashMap<>();
+    private final Map<Long, Schema> byFingerprint = new ConcurrentHashMap<>();
+
+    public LocalSchemaRegistry() {
+        Schema.Parser parser = new Schema.Parser();
+        for (String schemaFile : BUNDLED_SCHEMAS) {
+            try (InputStream in = new ClassPathResource("avro/wire/" + schemaFile + ".avsc").getInputStream()) {
+                register(parser.parse(in));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to load Avro schema " + schemaFile, e);
+            }
+        }
+    }
+
+    public void register(Schema schema) {
+        byName.put(schema.getFullName(), schema);
+        byFingerprint.put(fingerprint(schema), schema);
+    }
+
+    @Override
+    public Schema writerSchema(String fullName) {
+        Schema schema = byName.get(fullName);
+        if (schema == null) {
+            throw new IllegalArgumentException("No Avro schema registered for " + fullName);
+        }
+        return schema;
+    }
+
+    @Override
+    public Schema resolve(long fingerprint) {
+        return byFingerprint.get(fingerprint);
+    }
+}
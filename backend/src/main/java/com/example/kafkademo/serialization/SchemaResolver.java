@@ -0,0 +1,26 @@
+package com.example.kafkademo.serialization;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+
+/**
+ * Source of the Avro schemas used on the wire. Records carry the 64-bit fingerprint of
+ * their writer schema, so any implementation that can answer both lookups works: the
+ * in-process {@link LocalSchemaRegistry}, or a client for an external registry.
+ */
+public interface SchemaResolver {
+
+    /**
+     * Schema the producer writes records of the given full name with.
+     */
+    Schema writerSchema(String fullName);
+
+    /**
+     * Schema a record was written with, or {@code null} if the fingerprint is unknown.
+     */
+    Schema resolve(long fingerprint);
+
+    default long fingerprint(Schema schema) {
+        return SchemaNormalization.parsingFingerprint64(schema);
+    }
+}
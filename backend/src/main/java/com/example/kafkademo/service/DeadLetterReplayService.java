@@ -0,0 +1,300 @@
+package com.example.kafkademo.service;
+
+import com.example.kafkademo.consumer.PersistenceRetryConsumer;
+import com.example.kafkademo.consumer.PersistenceRetryMetrics;
+import com.example.kafkademo.events.interfaces.Event;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Re-drives the persistence dead-letter topic into Mongo. Records are read with their own
+ * consumer group, stored with one bulk insert per chunk and committed chunk by chunk, paced
+ * to the requested rate so a replay does not swamp a database that has just recovered.
+ * A replay runs in the background, one at a time; {@link #status()} reports its progress.
+ */
+@Slf4j
+@Service
+public class DeadLetterReplayService implements DisposableBean {
+
+    static final String REPLAY_GROUP = "user-events-dlt-replay";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final long ADMIN_TIMEOUT_SECONDS = 10;
+    private static final int MAX_CHUNK_SIZE = 500;
+    // Consecutive empty polls before a replay that has not reached the end gives up
+    private static final int MAX_IDLE_POLLS = 30;
+
+    private final ConsumerFactory<String, Event> eventConsumerFactory;
+    private final EventLogService eventLogService;
+    private final PersistenceRetryMetrics metrics;
+    private final AdminClient adminClient;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dlt-replay");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean replaying = new AtomicBoolean();
+    private volatile ReplayStatus status = ReplayStatus.idle();
+
+    public DeadLetterReplayService(ConsumerFactory<String, Event> eventConsumerFactory, EventLogService eventLogService,
+                                   PersistenceRetryMetrics metrics, KafkaAdmin kafkaAdmin) {
+        this.eventConsumerFactory = eventConsumerFactory;
+        this.eventLogService = eventLogService;
+        this.metrics = metrics;
+        this.adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+    }
+
+    /**
+     * Starts storing up to {@code maxRecords} dead-lettered events at no more than
+     * {@code recordsPerSecond}, and returns at once. Records that cannot be decoded are
+     * skipped. If a bulk insert fails the replay stops; chunks stored before it stay committed.
+     *
+     * @return the status of the replay just started
+     * @throws IllegalStateException if another replay is running
+     */
+    public ReplayStatus start(int maxRecords, int recordsPerSecond) {
+        if (!replaying.compareAndSet(false, true)) {
+            throw new IllegalStateException("A replay of " + PersistenceRetryConsumer.DLT + " is already running");
+        }
+        ReplayStatus started = ReplayStatus.running(Instant.now(), 0, 0);
+        status = started;
+        try {
+            executor.execute(() -> run(started.getStartedAt(), maxRecords, recordsPerSecond));
+        } catch (RejectedExecutionException e) {
+            replaying.set(false);
+            throw new IllegalStateException("Replay executor is shut down", e);
+        }
+        return started;
+    }
+
+    /**
+     * Progress of the running replay, or the outcome of the last one.
+     */
+    public ReplayStatus status() {
+        return status;
+    }
+
+    private void run(Instant startedAt, int maxRecords, int recordsPerSecond) {
+        Progress progress = new Progress();
+        try {
+            boolean drained = replay(startedAt, maxRecords, recordsPerSecond, progress);
+            status = ReplayStatus.finished(startedAt, progress.replayed, progress.skipped, drained, null);
+            log.info("Replayed {} events from {} ({} skipped), drained: {}",
+                    progress.replayed, PersistenceRetryConsumer.DLT, progress.skipped, drained);
+        } catch (RuntimeException e) {
+            log.error("Replay of {} stopped after {} events: {}",
+                    PersistenceRetryConsumer.DLT, progress.replayed, e.getMessage(), e);
+            status = ReplayStatus.finished(startedAt, progress.replayed, progress.skipped, false, e.getMessage());
+        } finally {
+            replaying.set(false);
+            refreshDltSize();
+        }
+    }
+
+    /**
+     * Replays until {@code maxRecords} are processed or every partition has been read up to
+     * the end offset it had when the replay started. Records dead-lettered during the replay
+     * are left for the next one.
+     *
+     * @param progress receives the replayed and skipped counts as they grow
+     * @return whether the end offsets were reached
+     */
+    private boolean replay(Instant startedAt, int maxRecords, int recordsPerSecond, Progress progress) {
+        int chunkSize = Math.min(MAX_CHUNK_SIZE, Math.min(maxRecords, recordsPerSecond));
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(chunkSize));
+        long started = startedAt.toEpochMilli();
+        try (Consumer<String, Event> consumer = eventConsumerFactory.createConsumer(REPLAY_GROUP, null, null, overrides)) {
+            List<PartitionInfo> partitions = consumer.partitionsFor(PersistenceRetryConsumer.DLT);
+            if (partitions == null || partitions.isEmpty()) {
+                return true;
+            }
+            List<TopicPartition> assigned = partitions.stream()
+                    .map(p -> new TopicPartition(p.topic(), p.partition()))
+                    .collect(Collectors.toList());
+            consumer.assign(assigned);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(assigned);
+            // Next offset to process per partition, starting from what the group committed
+            Map<TopicPartition, Long> next = new HashMap<>();
+            for (TopicPartition partition : assigned) {
+                next.put(partition, consumer.position(partition));
+            }
+
+            int idlePolls = 0;
+            while (progress.replayed + progress.skipped < maxRecords && !reached(next, endOffsets)) {
+                pace(started, progress.replayed + progress.skipped, recordsPerSecond);
+                ConsumerRecords<String, Event> records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    // Every record returned so far was processed, so the positions are safe to
+                    // take over; they also step past offsets that hold no record
+                    assigned.forEach(partition -> next.merge(partition, consumer.position(partition), Math::max));
+                    // Right after assignment the first fetches can come back empty
+                    if (!reached(next, endOffsets) && ++idlePolls >= MAX_IDLE_POLLS) {
+                        log.warn("No records from {} for {} polls before reaching its end offsets",
+                                PersistenceRetryConsumer.DLT, idlePolls);
+                        break;
+                    }
+                    continue;
+                }
+                idlePolls = 0;
+                List<Event> events = new ArrayList<>(records.count());
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                int skipped = 0;
+                for (ConsumerRecord<String, Event> record : records) {
+                    if (progress.replayed + progress.skipped + events.size() + skipped >= maxRecords) {
+                        break;
+                    }
+                    if (record.value() != null) {
+                        events.add(record.value());
+                    } else {
+                        skipped++;
+                    }
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    offsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                    next.put(partition, record.offset() + 1);
+                }
+                eventLogService.logEvents(events);
+                consumer.commitSync(offsets);
+                progress.replayed += events.size();
+                progress.skipped += skipped;
+                metrics.replayed(events.size());
+                status = ReplayStatus.running(startedAt, progress.replayed, progress.skipped);
+            }
+            return reached(next, endOffsets);
+        }
+    }
+
+    private static boolean reached(Map<TopicPartition, Long> next, Map<TopicPartition, Long> endOffsets) {
+        return endOffsets.entrySet().stream()
+                .allMatch(end -> next.getOrDefault(end.getKey(), 0L) >= end.getValue());
+    }
+
+    private static void pace(long started, int processed, int recordsPerSecond) {
+        long due = started + processed * 1000L / recordsPerSecond;
+        long wait = due - System.currentTimeMillis();
+        if (wait > 0) {
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while replaying " + PersistenceRetryConsumer.DLT, e);
+            }
+        }
+    }
+
+    /**
+     * Publishes the number of dead-lettered records the replay group has not consumed yet.
+     */
+    @Scheduled(fixedDelayString = "${app.persistence.dlt.size-refresh-ms:30000}")
+    public void refreshDltSize() {
+        try {
+            TopicDescription description = adminClient.describeTopics(List.of(PersistenceRetryConsumer.DLT))
+                    .allTopicNames().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .get(PersistenceRetryConsumer.DLT);
+            Map<TopicPartition, OffsetSpec> earliest = new HashMap<>();
+            Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+            description.partitions().forEach(p -> {
+                TopicPartition partition = new TopicPartition(PersistenceRetryConsumer.DLT, p.partition());
+                earliest.put(partition, OffsetSpec.earliest());
+                latest.put(partition, OffsetSpec.latest());
+            });
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> start =
+                    adminClient.listOffsets(earliest).all().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> end =
+                    adminClient.listOffsets(latest).all().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Map<TopicPartition, OffsetAndMetadata> committed = adminClient.listConsumerGroupOffsets(REPLAY_GROUP)
+                    .partitionsToOffsetAndMetadata().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            long size = 0;
+            for (Map.Entry<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> entry : end.entrySet()) {
+                OffsetAndMetadata position = committed.get(entry.getKey());
+                long from = Math.max(start.get(entry.getKey()).offset(), position != null ? position.offset() : 0);
+                size += Math.max(0, entry.getValue().offset() - from);
+            }
+            metrics.dltSize(size);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UnknownTopicOrPartitionException) {
+                // Nothing has been dead-lettered yet
+                metrics.dltSize(0);
+            } else {
+                log.warn("Could not read the size of {}: {}", PersistenceRetryConsumer.DLT, e.getMessage());
+            }
+        } catch (TimeoutException e) {
+            log.warn("Timed out reading the size of {}", PersistenceRetryConsumer.DLT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // Interrupts a running replay; chunks stored so far stay committed
+        executor.shutdownNow();
+        adminClient.close(Duration.ofSeconds(ADMIN_TIMEOUT_SECONDS));
+    }
+
+    private static final class Progress {
+        int replayed;
+        int skipped;
+    }
+
+    public enum ReplayState { IDLE, RUNNING, COMPLETED, FAILED }
+
+    @Value
+    public static class ReplayStatus {
+        ReplayState state;
+        Instant startedAt;
+        Instant finishedAt;
+        int replayed;
+        int skipped;
+        // Whether every record dead-lettered before the start was processed
+        boolean drained;
+        String error;
+
+        static ReplayStatus idle() {
+            return new ReplayStatus(ReplayState.IDLE, null, null, 0, 0, false, null);
+        }
+
+        static ReplayStatus running(Instant startedAt, int replayed, int skipped) {
+            return new ReplayStatus(ReplayState.RUNNING, startedAt, null, replayed, skipped, false, null);
+        }
+
+        static ReplayStatus finished(Instant startedAt, int replayed, int skipped, boolean drained, String error) {
+            return new ReplayStatus(error == null ? ReplayState.COMPLETED : ReplayState.FAILED, startedAt, Instant.now(),
+                    replayed, skipped, drained, error);
+        }
+    }
+}
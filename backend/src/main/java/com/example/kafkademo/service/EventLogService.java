@@ -1,12 +1,15 @@
 package com.example.kafkademo.service;
 
+import com.example.kafkademo.dto.EventPage;
 import com.example.kafkademo.events.interfaces.Event;
-import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.repository.EventQuery;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -14,40 +17,40 @@ import java.util.List;
 public class EventLogService {
     
     private final EventStorageService eventStorageService;
+    private final FunnelRollupService funnelRollupService;
 
-    public void logEvent(Event event) {
-        try {
-            eventStorageService.saveEvent(event);
-            log.debug("Successfully logged event: {} for user {}", 
-                    event.getEventType(), event.getUserId());
-        } catch (Exception e) {
-            log.error("Failed to log event: {}", event, e);
-            // Consider implementing a dead letter queue or retry mechanism here
-        }
+    /**
+     * Stores a batch of events before returning. A failure is rethrown, so a consumer does not
+     * commit offsets for events that were never written.
+     */
+    public void logEvents(List<Event> events) {
+        int inserted = eventStorageService.saveEvents(events);
+        log.debug("Logged batch of {} events", inserted);
     }
 
-    public List<Event> getEventsByUserId(String userId) {
+    public EventPage getEventPage(EventQuery query, int limit) {
         try {
-            return eventStorageService.getEventsByUserId(userId);
+            return eventStorageService.getEventPage(query, limit);
         } catch (Exception e) {
-            log.error("Failed to get events for user: {}", userId, e);
+            log.error("Failed to get events for user: {} and type: {}", query.getUserId(), query.getEventType(), e);
             throw new RuntimeException("Failed to retrieve events", e);
         }
     }
 
-    public List<Event> getEventsByUserIdAndType(String userId, EventType eventType) {
-        try {
-            return eventStorageService.getEventsByUserIdAndType(userId, eventType);
-        } catch (Exception e) {
-            log.error("Failed to get events for user: {} and type: {}", userId, eventType, e);
-            throw new RuntimeException("Failed to retrieve events", e);
-        }
+    public Stream<Event> streamEvents(EventQuery query) {
+        return eventStorageService.streamEvents(query);
     }
-    
+
+    public Flux<Event> fluxEvents(EventQuery query) {
+        return eventStorageService.fluxEvents(query);
+    }
+
     public void clearEvents() {
         try {
             eventStorageService.clearEvents();
-            log.info("All events have been cleared from storage");
+            // The rollups would otherwise still count the removed events
+            funnelRollupService.clear();
+            log.info("All events and funnel rollups have been cleared from storage");
         } catch (Exception e) {
             log.error("Failed to clear events", e);
             throw new RuntimeException("Failed to clear events", e);
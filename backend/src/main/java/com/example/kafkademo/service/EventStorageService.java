@@ -1,101 +1,184 @@
 package com.example.kafkademo.service;
 
-import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.codec.EventCodecRegistry;
+import com.example.kafkademo.dto.EventPage;
+import com.example.kafkademo.dto.EventView;
 import com.example.kafkademo.events.interfaces.Event;
 import com.example.kafkademo.model.EventDocument;
-import com.example.kafkademo.repository.EventRepository;
+import com.example.kafkademo.repository.EventCursor;
+import com.example.kafkademo.repository.EventQuery;
+import com.example.kafkademo.repository.EventStore;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.BulkOperationException;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
 
-import java.time.Instant;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EventStorageService {
 
-    private final EventRepository eventRepository;
+    private final EventStore eventStore;
+    private final EventCodecRegistry eventCodecRegistry;
+    private final Optional<RecentEventsCache> recentEventsCache;
+    private final Optional<RecentEventsInvalidation> recentEventsInvalidation;
+    private final Scheduler eventReadScheduler;
 
-    public void saveEvent(Event event) {
+    /**
+     * Stores the events with a single bulk write, so the whole batch costs one round trip
+     * instead of one per event. Events that are already stored, e.g. after a redelivery, are
+     * not stored again and do not count as failures. Other failures are thrown to the caller,
+     * which must not treat the batch as stored.
+     *
+     * @return the number of events stored
+     */
+    public int saveEvents(List<Event> events) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+        List<EventDocument> docs = events.stream()
+            .map(event -> eventCodecRegistry.codecFor(event.getEventType()).toDocument(event))
+            .collect(Collectors.toList());
+        int stored = store(docs);
+        log.debug("Bulk stored {} events in MongoDB", stored);
+        return stored;
+    }
+
+    private int store(List<EventDocument> docs) {
+        int stored;
         try {
-            // Convert Map<String, String> to Map<String, Object>
-            Map<String, Object> properties = new HashMap<>(event.getProperties());
-            
-            EventDocument doc = new EventDocument(
-                event.getEventId(),
-                event.getUserId(),
-                event.getEventType(),
-                event.getTimestamp(),
-                properties
-            );
-            eventRepository.save(doc);
-            log.debug("Saved event to MongoDB: {} - {}", event.getEventType(), event.getEventId());
-        } catch (Exception e) {
-            log.error("Failed to save event to MongoDB: {}", event, e);
-            // Consider implementing a dead letter queue or retry mechanism here
+            stored = eventStore.insert(docs);
+        } catch (BulkOperationException e) {
+            List<BulkWriteError> failed = e.getErrors().stream()
+                .filter(error -> ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY)
+                .collect(Collectors.toList());
+            // The rest were written, now or by an earlier delivery
+            Set<Integer> failedIndexes = failed.stream().map(BulkWriteError::getIndex).collect(Collectors.toSet());
+            List<EventDocument> written = new ArrayList<>(docs.size() - failedIndexes.size());
+            for (int i = 0; i < docs.size(); i++) {
+                if (!failedIndexes.contains(i)) {
+                    written.add(docs.get(i));
+                }
+            }
+            onStored(written);
+            if (failed.size() == e.getErrors().size()) {
+                throw e;
+            }
+            if (!failed.isEmpty()) {
+                // Error indexes still refer to docs, so the caller can retry just these
+                throw new BulkOperationException(e.getMessage(), failed, e.getResult());
+            }
+            log.debug("Skipped {} events that were already stored", e.getErrors().size());
+            return e.getResult().getInsertedCount();
+        } catch (RuntimeException e) {
+            // Some bulks may have been written before the failure; the users' entries must go
+            Set<String> userIds = userIds(docs);
+            recentEventsCache.ifPresent(cache -> cache.invalidate(userIds));
+            recentEventsInvalidation.ifPresent(invalidation -> invalidation.publish(userIds));
+            throw e;
         }
+        onStored(docs);
+        return stored;
     }
 
-    public List<Event> getEventsByUserId(String userId) {
-        return eventRepository.findByUserId(userId).stream()
-            .map(this::mapToEvent)
-            .collect(Collectors.toList());
+    /**
+     * Merges stored documents into this instance's cache and tells the other instances to
+     * drop their entries of the same users.
+     */
+    private void onStored(List<EventDocument> docs) {
+        if (docs.isEmpty()) {
+            return;
+        }
+        recentEventsCache.ifPresent(cache -> cache.onStored(docs));
+        recentEventsInvalidation.ifPresent(invalidation -> invalidation.publish(userIds(docs)));
+    }
+
+    private static Set<String> userIds(List<EventDocument> docs) {
+        Set<String> userIds = new LinkedHashSet<>();
+        for (EventDocument doc : docs) {
+            if (doc.getUserId() != null) {
+                userIds.add(doc.getUserId());
+            }
+        }
+        return userIds;
+    }
+
+    /**
+     * Returns up to {@code limit} matching events, newest first. Pages are found by seeking
+     * past the query's cursor rather than by skipping, so deep pages cost the same as the
+     * first one. First pages without a time range are answered from the
+     * {@link RecentEventsCache} when it holds them.
+     */
+    public EventPage getEventPage(EventQuery query, int limit) {
+        if (query.getAfter() == null && !query.hasTimeRange() && recentEventsCache.isPresent()) {
+            RecentEventsCache cache = recentEventsCache.get();
+            RecentEventsCache.CachedPage cached = cache.firstPage(query.getUserId(), query.getEventType(), limit);
+            if (cached != null) {
+                return toPage(cached.getDocs(), cached.isMore());
+            }
+            if (query.getEventType() == null && limit <= cache.eventsPerUser()) {
+                // From the primary, so the entry does not start out behind a lagging secondary
+                long loadedAt = cache.version();
+                List<EventDocument> recent = eventStore.findOnPrimary(query, cache.eventsPerUser() + 1);
+                cache.putIfUnchanged(query.getUserId(), recent, recent.size() <= cache.eventsPerUser(), loadedAt);
+                return toPage(recent.subList(0, Math.min(limit, recent.size())), recent.size() > limit);
+            }
+        }
+        // One extra row tells whether there is a next page
+        List<EventDocument> docs = eventStore.find(query, limit + 1);
+        boolean more = docs.size() > limit;
+        return toPage(more ? docs.subList(0, limit) : docs, more);
     }
 
-    public List<Event> getEventsByUserIdAndType(String userId, EventType eventType) {
-        return eventRepository.findByUserIdAndEventType(userId, eventType).stream()
-            .map(this::mapToEvent)
+    private EventPage toPage(List<EventDocument> docs, boolean more) {
+        String next = null;
+        if (more && !docs.isEmpty()) {
+            EventDocument last = docs.get(docs.size() - 1);
+            next = new EventCursor(last.getTimestamp(), last.getId()).encode();
+        }
+        List<Event> events = docs.stream()
+            .map(EventView::new)
             .collect(Collectors.toList());
+        return new EventPage(events, next);
     }
-    
+
+    /**
+     * All matching events, newest first, read through a server-side cursor so only one
+     * batch is held in memory at a time. The caller must close the stream.
+     */
+    public Stream<Event> streamEvents(EventQuery query) {
+        return eventStore.stream(query).map(EventView::new);
+    }
+
+    /**
+     * All matching events, newest first, as the subscriber requests them. No request thread
+     * waits for the database; events are emitted on the {@code eventReadScheduler}.
+     */
+    public Flux<Event> fluxEvents(EventQuery query) {
+        return eventStore.flux(query, eventReadScheduler).map(EventView::new);
+    }
+
     public void clearEvents() {
         try {
-            eventRepository.deleteAll();
+            eventStore.clear();
+            recentEventsCache.ifPresent(RecentEventsCache::clear);
+            recentEventsInvalidation.ifPresent(RecentEventsInvalidation::publishClear);
             log.info("All events have been cleared from the database");
         } catch (Exception e) {
             log.error("Failed to clear events from the database", e);
             throw new RuntimeException("Failed to clear events from the database", e);
         }
     }
-
-    private Event mapToEvent(EventDocument doc) {
-        // This is a simplified mapping. You might need to implement a proper mapping
-        // based on your event types and their specific properties.
-        return new Event() {
-            @Override
-            public String getEventId() {
-                return doc.getEventId();
-            }
-
-            @Override
-            public String getUserId() {
-                return doc.getUserId();
-            }
-
-            @Override
-            public long getTimestamp() {
-                return doc.getTimestamp();
-            }
-
-            @Override
-            public Map<String, String> getProperties() {
-                // Convert Map<String, Object> to Map<String, String>
-                return doc.getProperties().entrySet().stream()
-                    .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        e -> e.getValue() != null ? e.getValue().toString() : ""
-                    ));
-            }
-
-            @Override
-            public EventType getEventType() {
-                return doc.getEventType();
-            }
-        };
-    }
 }
@@ -0,0 +1,224 @@
+package com.example.kafkademo.service;
+
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.events.AddToCartEvent;
+import com.example.kafkademo.events.PurchaseEvent;
+import com.example.kafkademo.events.interfaces.Event;
+import com.example.kafkademo.product.ItemContext;
+import com.mongodb.client.model.IndexOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.GroupOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Keeps hourly PAGE_VIEW → ADD_TO_CART → PURCHASE counts, overall and per item, in the
+ * {@code funnel-rollups} collection:
+ * <pre>
+ * { hour: hour start, item: itemId or "*", steps: { PAGE_VIEW: n, ADD_TO_CART: n, PURCHASE: n } }
+ * </pre>
+ * Counts are added with {@code $inc} upserts as events are consumed, so a funnel over any
+ * range reads one small document per hour instead of the raw events. Steps count events,
+ * not distinct users; a purchase counts once for each item it contains.
+ * <p>
+ * The view step of an item's funnel counts the page views that carry the item as their
+ * {@code itemId} property, i.e. views of its product page sent with {@code itemId}. Other
+ * page views count only in the overall funnel; {@code VIEW_ITEM} events are not a step, so
+ * item and overall funnels measure views the same way.
+ */
+@Slf4j
+@Service
+public class FunnelRollupService implements InitializingBean {
+
+    public static final String COLLECTION = "funnel-rollups";
+    public static final String ALL_ITEMS = "*";
+    public static final List<EventType> STEPS = List.of(EventType.PAGE_VIEW, EventType.ADD_TO_CART, EventType.PURCHASE);
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoTemplate readTemplate;
+
+    public FunnelRollupService(MongoTemplate mongoTemplate, @Qualifier("readMongoTemplate") MongoTemplate readTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.readTemplate = readTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        // Also the upsert key, so concurrent first writes of an hour cannot create duplicates
+        mongoTemplate.getCollection(COLLECTION).createIndex(new Document("item", 1).append("hour", 1),
+            new IndexOptions().unique(true));
+    }
+
+    /**
+     * Adds the funnel steps among {@code events} to their hourly rollups. The batch is
+     * summed in memory first, so each touched hour and item costs one upsert, all sent as
+     * one unordered bulk write.
+     *
+     * @return the number of rollup documents updated or created
+     */
+    public int record(List<Event> events) {
+        Map<RollupKey, Map<EventType, Integer>> counts = new LinkedHashMap<>();
+        for (Event event : events) {
+            if (!STEPS.contains(event.getEventType())) {
+                continue;
+            }
+            Date hour = hourOf(event.getTimestamp());
+            for (String item : itemsOf(event)) {
+                counts.computeIfAbsent(new RollupKey(hour, item), key -> new EnumMap<>(EventType.class))
+                    .merge(event.getEventType(), 1, Integer::sum);
+            }
+        }
+        if (counts.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+        counts.forEach((key, steps) -> {
+            Update update = new Update();
+            steps.forEach((step, n) -> update.inc("steps." + step.name(), n));
+            bulk.upsert(new Query(Criteria.where("item").is(key.item).and("hour").is(key.hour)), update);
+        });
+        bulk.execute();
+        log.debug("Added {} funnel events to {} rollups", events.size(), counts.size());
+        return counts.size();
+    }
+
+    /**
+     * Step counts over {@code [from, to)}, rounded out to whole hours, for one item or all.
+     */
+    public Map<EventType, Long> funnel(long from, long to, String item) {
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(inRange(from, to).and("item").is(item != null ? item : ALL_ITEMS)),
+            sumSteps(Aggregation.group()));
+        Document totals = readTemplate.aggregate(aggregation, COLLECTION, Document.class).getUniqueMappedResult();
+        return toSteps(totals);
+    }
+
+    /**
+     * Step counts per hour over {@code [from, to)}, oldest hour first, for one item or all.
+     */
+    public Map<Instant, Map<EventType, Long>> hourly(long from, long to, String item) {
+        Query query = new Query(inRange(from, to).and("item").is(item != null ? item : ALL_ITEMS))
+            .with(Sort.by(Sort.Direction.ASC, "hour"));
+        Map<Instant, Map<EventType, Long>> hours = new LinkedHashMap<>();
+        for (Document rollup : readTemplate.find(query, Document.class, COLLECTION)) {
+            hours.put(rollup.getDate("hour").toInstant(), toSteps(rollup.get("steps", Document.class)));
+        }
+        return hours;
+    }
+
+    /**
+     * Step counts per item over {@code [from, to)}, the {@code limit} items with the most
+     * purchases first.
+     */
+    public Map<String, Map<EventType, Long>> byItem(long from, long to, int limit) {
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(inRange(from, to).and("item").ne(ALL_ITEMS)),
+            sumSteps(Aggregation.group("item")),
+            Aggregation.sort(Sort.by(Sort.Direction.DESC, EventType.PURCHASE.name(), EventType.ADD_TO_CART.name())),
+            Aggregation.limit(limit));
+        Map<String, Map<EventType, Long>> items = new LinkedHashMap<>();
+        for (Document totals : readTemplate.aggregate(aggregation, COLLECTION, Document.class)) {
+            items.put(totals.getString("_id"), toSteps(totals));
+        }
+        return items;
+    }
+
+    public void clear() {
+        mongoTemplate.getCollection(COLLECTION).deleteMany(new Document());
+    }
+
+    private static GroupOperation sumSteps(GroupOperation group) {
+        for (EventType step : STEPS) {
+            group = group.sum("steps." + step.name()).as(step.name());
+        }
+        return group;
+    }
+
+    private static Map<EventType, Long> toSteps(Document counts) {
+        Map<EventType, Long> steps = new EnumMap<>(EventType.class);
+        for (EventType step : STEPS) {
+            Object count = counts != null ? counts.get(step.name()) : null;
+            steps.put(step, count instanceof Number ? ((Number) count).longValue() : 0L);
+        }
+        return steps;
+    }
+
+    private static Criteria inRange(long from, long to) {
+        return Criteria.where("hour").gte(hourOf(from)).lt(new Date(to));
+    }
+
+    /**
+     * The overall rollup plus one per item the event is about: the cart item, each purchased
+     * item, or the {@code itemId} property of a page view.
+     */
+    private static Set<String> itemsOf(Event event) {
+        Set<String> items = new LinkedHashSet<>();
+        items.add(ALL_ITEMS);
+        if (event instanceof AddToCartEvent) {
+            ItemContext item = ((AddToCartEvent) event).getItem();
+            if (item != null && item.getItemId() != null) {
+                items.add(item.getItemId());
+            }
+        } else if (event instanceof PurchaseEvent) {
+            List<ItemContext> purchased = ((PurchaseEvent) event).getItems();
+            if (purchased != null) {
+                purchased.stream()
+                    .map(ItemContext::getItemId)
+                    .filter(Objects::nonNull)
+                    .forEach(items::add);
+            }
+        } else if (event.getProperties() != null && event.getProperties().get("itemId") != null) {
+            items.add(event.getProperties().get("itemId"));
+        }
+        return items;
+    }
+
+    private static Date hourOf(long timestamp) {
+        return Date.from(Instant.ofEpochMilli(timestamp).truncatedTo(ChronoUnit.HOURS));
+    }
+
+    private static final class RollupKey {
+        private final Date hour;
+        private final String item;
+
+        RollupKey(Date hour, String item) {
+            this.hour = hour;
+            this.item = item;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof RollupKey)) {
+                return false;
+            }
+            RollupKey other = (RollupKey) o;
+            return hour.equals(other.hour) && item.equals(other.item);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hour, item);
+        }
+    }
+}
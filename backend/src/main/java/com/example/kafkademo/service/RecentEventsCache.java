@@ -0,0 +1,233 @@
+package com.example.kafkademo.service;
+
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.model.EventDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Each user's most recent events, newest first, for answering the first page of
+ * {@code GET /api/events} without a query. Events this instance stores are merged into the
+ * entries of users already cached; events stored by other instances invalidate the user's
+ * entry through {@link #invalidate}. Every such change bumps the user's version, and an
+ * entry loaded from the database is only kept if the user did not change while it was read,
+ * so a slow load cannot overwrite newer events. The TTL bounds staleness should an
+ * invalidation be lost. Least recently used users are evicted once {@code max-users} entries
+ * are held.
+ */
+@Component
+@ConditionalOnProperty(name = "app.query.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class RecentEventsCache {
+
+    private static final Comparator<EventDocument> NEWEST_FIRST = Comparator
+            .comparingLong(EventDocument::getTimestamp)
+            .thenComparing(EventDocument::getId, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .reversed();
+
+    private final int eventsPerUser;
+    private final long ttlMs;
+    private final Map<String, Entry> entries;
+    // Version of each user's last change, for the users changed most recently
+    private final Map<String, Long> changes;
+    private long version;
+    // Newest version dropped from changes; users no longer listed may have changed up to it
+    private long forgottenVersion;
+    private final Counter hits;
+    private final Counter misses;
+
+    public RecentEventsCache(@Value("${app.query.cache.max-users:10000}") int maxUsers,
+                             @Value("${app.query.cache.events-per-user:100}") int eventsPerUser,
+                             @Value("${app.query.cache.ttl-ms:60000}") long ttlMs,
+                             MeterRegistry meterRegistry) {
+        this.eventsPerUser = eventsPerUser;
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxUsers;
+            }
+        };
+        this.changes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                if (size() > maxUsers) {
+                    forgottenVersion = Math.max(forgottenVersion, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        Gauge.builder("events.cache.users", this, RecentEventsCache::size)
+                .description("Users whose recent events are cached")
+                .register(meterRegistry);
+        hits = Counter.builder("events.cache.requests").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("events.cache.requests").tag("result", "miss").register(meterRegistry);
+    }
+
+    public int eventsPerUser() {
+        return eventsPerUser;
+    }
+
+    /**
+     * The newest {@code limit} events of the user, optionally of one type, or {@code null}
+     * if the cache cannot answer that for certain.
+     */
+    public synchronized CachedPage firstPage(String userId, EventType eventType, int limit) {
+        Entry entry = entries.get(userId);
+        if (entry == null || entry.expiresAt < System.currentTimeMillis()) {
+            entries.remove(userId);
+            misses.increment();
+            return null;
+        }
+        List<EventDocument> page = new ArrayList<>(Math.min(limit, entry.docs.size()));
+        boolean more = false;
+        for (EventDocument doc : entry.docs) {
+            if (eventType == null || eventType == doc.getEventType()) {
+                if (page.size() == limit) {
+                    more = true;
+                    break;
+                }
+                page.add(doc);
+            }
+        }
+        if (page.size() < limit && !entry.complete) {
+            // Older matching events may exist beyond what is cached
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new CachedPage(page, more || (page.size() == limit && !entry.complete));
+    }
+
+    /**
+     * Caches the user's newest events as read from the database.
+     *
+     * @param complete whether {@code docs} are all of the user's events
+     */
+    public synchronized void put(String userId, List<EventDocument> docs, boolean complete) {
+        List<EventDocument> newest = new ArrayList<>(docs.subList(0, Math.min(docs.size(), eventsPerUser)));
+        entries.put(userId, new Entry(newest, complete && docs.size() <= eventsPerUser,
+                System.currentTimeMillis() + ttlMs));
+    }
+
+    /**
+     * The version to pass to {@link #putIfUnchanged} for a load that starts now.
+     */
+    public synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Caches the user's newest events as read from the database, unless the user changed
+     * after {@code loadedAt}, in which case the events read may already be out of date.
+     *
+     * @return whether the events were cached
+     */
+    public synchronized boolean putIfUnchanged(String userId, List<EventDocument> docs, boolean complete,
+                                               long loadedAt) {
+        if (changes.getOrDefault(userId, forgottenVersion) > loadedAt) {
+            return false;
+        }
+        put(userId, docs, complete);
+        return true;
+    }
+
+    /**
+     * Merges freshly stored documents into the entries of users already cached.
+     */
+    public synchronized void onStored(List<EventDocument> docs) {
+        for (EventDocument doc : docs) {
+            if (doc.getUserId() == null) {
+                continue;
+            }
+            changed(doc.getUserId());
+            Entry entry = entries.get(doc.getUserId());
+            if (entry == null) {
+                continue;
+            }
+            int at = 0;
+            while (at < entry.docs.size() && NEWEST_FIRST.compare(entry.docs.get(at), doc) < 0) {
+                at++;
+            }
+            if (at < entry.docs.size() && Objects.equals(entry.docs.get(at).getId(), doc.getId())) {
+                // Stored again after a redelivery
+                continue;
+            }
+            entry.docs.add(at, doc);
+            if (entry.docs.size() > eventsPerUser) {
+                entry.docs.remove(entry.docs.size() - 1);
+                entry.complete = false;
+            }
+        }
+    }
+
+    /**
+     * Drops the entries of users whose events were stored elsewhere.
+     */
+    public synchronized void invalidate(Collection<String> userIds) {
+        for (String userId : userIds) {
+            changed(userId);
+            entries.remove(userId);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        // Loads still running may have read events that are gone now
+        forgottenVersion = ++version;
+        changes.clear();
+    }
+
+    private void changed(String userId) {
+        changes.put(userId, ++version);
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        final List<EventDocument> docs;
+        boolean complete;
+        final long expiresAt;
+
+        Entry(List<EventDocument> docs, boolean complete, long expiresAt) {
+            this.docs = docs;
+            this.complete = complete;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public static final class CachedPage {
+        private final List<EventDocument> docs;
+        private final boolean more;
+
+        CachedPage(List<EventDocument> docs, boolean more) {
+            this.docs = docs;
+            this.more = more;
+        }
+
+        public List<EventDocument> getDocs() {
+            return docs;
+        }
+
+        /**
+         * Whether older events than the last one in {@link #getDocs()} may exist.
+         */
+        public boolean isMore() {
+            return more;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.kafkademo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Tells every instance which users had events stored, so each drops its cached entries for
+ * them. A user's events can be stored by any instance, since lanes spread them over several
+ * topics and consumer groups. Notices are published only after the events are on the
+ * primary, so an instance that reloads a user after the notice sees them. Every instance
+ * reads the notices in a consumer group of its own and skips those it published itself,
+ * having merged those events already.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.query.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class RecentEventsInvalidation {
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final RecentEventsCache recentEventsCache;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final String topic;
+
+    public RecentEventsInvalidation(RecentEventsCache recentEventsCache,
+                                    @Qualifier("cacheInvalidationTemplate") KafkaTemplate<String, String> kafkaTemplate,
+                                    @Value("${app.query.cache.invalidation-topic:user-events-stored}") String topic) {
+        this.recentEventsCache = recentEventsCache;
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+    }
+
+    public String getGroupId() {
+        return "recent-events-cache-" + instanceId;
+    }
+
+    /**
+     * Publishes one notice per user, keyed by user id. A notice that cannot be sent is only
+     * logged; the other instances then serve the user's cached page until its TTL ends.
+     */
+    public void publish(Collection<String> userIds) {
+        for (String userId : userIds) {
+            kafkaTemplate.send(topic, userId, instanceId).addCallback(
+                result -> { },
+                ex -> log.warn("Failed to publish cache invalidation for user {}: {}", userId, ex.getMessage()));
+        }
+    }
+
+    /**
+     * Tells the other instances to drop every entry, after all events were removed.
+     */
+    public void publishClear() {
+        // A notice without a user id stands for all users
+        kafkaTemplate.send(topic, null, instanceId).addCallback(
+            result -> { },
+            ex -> log.warn("Failed to publish cache clear: {}", ex.getMessage()));
+    }
+
+    @KafkaListener(topics = "${app.query.cache.invalidation-topic:user-events-stored}",
+            groupId = "#{__listener.groupId}", containerFactory = "cacheInvalidationContainerFactory")
+    public void consume(List<ConsumerRecord<String, String>> records) {
+        Set<String> userIds = new LinkedHashSet<>();
+        for (ConsumerRecord<String, String> record : records) {
+            if (instanceId.equals(record.value())) {
+                continue;
+            }
+            if (record.key() == null) {
+                recentEventsCache.clear();
+                userIds.clear();
+            } else {
+                userIds.add(record.key());
+            }
+        }
+        if (!userIds.isEmpty()) {
+            recentEventsCache.invalidate(userIds);
+            log.debug("Invalidated cached events of {} users", userIds.size());
+        }
+    }
+}
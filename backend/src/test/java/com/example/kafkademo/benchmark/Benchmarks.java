@@ -0,0 +1,53 @@
+package com.example.kafkademo.benchmark;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Measuring helpers shared by the {@code benchmark}-tagged tests. Results are logged, not
+ * asserted: they depend on the machine and are meant for comparing variants in one run.
+ */
+public final class Benchmarks {
+
+    private static final Logger log = LoggerFactory.getLogger("benchmark");
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Bytes allocated by the calling thread per run of {@code task}, after {@code warmup}
+     * runs to let the JIT settle.
+     */
+    public static long bytesPerRun(int warmup, int runs, Runnable task) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < warmup; i++) {
+            task.run();
+        }
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < runs; i++) {
+            task.run();
+        }
+        return (threads.getThreadAllocatedBytes(thread) - before) / runs;
+    }
+
+    /**
+     * The value below which {@code percent} of {@code samples} fall; sorts {@code samples}.
+     */
+    public static long percentile(long[] samples, double percent) {
+        Arrays.sort(samples);
+        int index = (int) Math.ceil(percent / 100 * samples.length) - 1;
+        return samples[Math.max(0, Math.min(index, samples.length - 1))];
+    }
+
+    public static double perSecond(long count, long nanos) {
+        return count * 1_000_000_000.0 / nanos;
+    }
+
+    public static void report(String format, Object... args) {
+        log.info(format, args);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.kafkademo.benchmark;
+
+import com.example.kafkademo.codec.AddToCartCodec;
+import com.example.kafkademo.codec.EventCodecRegistry;
+import com.example.kafkademo.codec.GenericEventCodec;
+import com.example.kafkademo.codec.PageViewCodec;
+import com.example.kafkademo.codec.PurchaseCodec;
+import com.example.kafkademo.dto.TrackEventRequest;
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.events.interfaces.Event;
+import com.example.kafkademo.factory.EventFactory;
+import com.example.kafkademo.product.ItemContext;
+import com.example.kafkademo.user.UserContext;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bytes allocated per {@code POST /api/events} body, from the raw JSON to the {@link Event}:
+ * binding to {@link TrackEventRequest} and the codec, against the earlier binding to
+ * {@code Map<String, Object>} followed by the {@code eventData} and item maps. Kafka and
+ * MongoDB are left out; they cost the same either way.
+ */
+@Tag("benchmark")
+class TrackEventAllocationBenchmark {
+
+    private static final int WARMUP = 20_000;
+    private static final int RUNS = 100_000;
+    private static final TypeReference<Map<String, Object>> MAP = new TypeReference<>() {
+    };
+
+    private static final byte[] PAGE_VIEW = json("{\"userId\":\"u1\",\"eventType\":\"page_view\",\"sessionId\":\"s1\","
+            + "\"userAgent\":\"Mozilla/5.0\",\"ipAddress\":\"10.0.0.1\",\"pageUrl\":\"/products/42\","
+            + "\"pageTitle\":\"Product 42\"}");
+    private static final byte[] PURCHASE = json("{\"userId\":\"u1\",\"eventType\":\"purchase\",\"sessionId\":\"s1\","
+            + "\"orderId\":\"o-1\",\"paymentMethod\":\"card\",\"currency\":\"EUR\",\"items\":["
+            + "{\"itemId\":\"sku-1\",\"itemType\":\"BOOK\",\"price\":12.5,\"currency\":\"EUR\",\"quantity\":1},"
+            + "{\"itemId\":\"sku-2\",\"itemType\":\"BOOK\",\"price\":7.25,\"currency\":\"EUR\",\"quantity\":2},"
+            + "{\"itemId\":\"sku-3\",\"itemType\":\"GAME\",\"price\":49.99,\"currency\":\"EUR\",\"quantity\":1}]}");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final EventCodecRegistry registry = new EventCodecRegistry(
+            List.of(new PageViewCodec(), new AddToCartCodec(), new PurchaseCodec()), new GenericEventCodec());
+
+    @Test
+    void bytesPerRequest() {
+        for (byte[] body : List.of(PAGE_VIEW, PURCHASE)) {
+            assertThat(typed(body).getEventType()).isEqualTo(mapBased(body).getEventType());
+            long before = Benchmarks.bytesPerRun(WARMUP, RUNS, () -> mapBased(body));
+            long after = Benchmarks.bytesPerRun(WARMUP, RUNS, () -> typed(body));
+            Benchmarks.report("trackEvent {}: {} B/request with maps, {} B/request typed ({}%)",
+                    typed(body).getEventType(), before, after, Math.round(100.0 * (after - before) / before));
+        }
+    }
+
+    private Event typed(byte[] body) {
+        try {
+            TrackEventRequest request = objectMapper.readValue(body, TrackEventRequest.class);
+            EventType type = registry.resolve(request.getEventType());
+            return registry.codecFor(type).toEvent(type, request);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The conversion {@code trackEvent} did before the typed request model, for the types measured here.
+     */
+    @SuppressWarnings("unchecked")
+    private Event mapBased(byte[] body) {
+        Map<String, Object> request;
+        try {
+            request = objectMapper.readValue(body, MAP);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String userId = (String) request.get("userId");
+        EventType type = EventType.valueOf(((String) request.get("eventType")).toUpperCase());
+        Map<String, Object> eventData = new HashMap<>();
+        eventData.put("sessionId", request.get("sessionId"));
+        eventData.put("userAgent", request.get("userAgent"));
+        eventData.put("ipAddress", request.get("ipAddress"));
+        if (type == EventType.PAGE_VIEW) {
+            eventData.put("pageUrl", request.get("pageUrl"));
+            eventData.put("pageTitle", request.get("pageTitle"));
+            UserContext user = UserContext.builder()
+                    .sessionId((String) eventData.get("sessionId"))
+                    .userAgent((String) eventData.get("userAgent"))
+                    .ipAddress((String) eventData.get("ipAddress"))
+                    .build();
+            return EventFactory.createPageView(user, (String) eventData.get("pageUrl"),
+                    (String) eventData.get("pageTitle"));
+        }
+        eventData.put("orderId", request.get("orderId"));
+        eventData.put("paymentMethod", request.get("paymentMethod"));
+        eventData.put("currency", request.get("currency"));
+        eventData.put("items", request.get("items"));
+        List<ItemContext> items = ((List<Map<String, Object>>) eventData.get("items")).stream()
+                .map(item -> ItemContext.builder()
+                        .itemId((String) item.get("itemId"))
+                        .itemType((String) item.get("itemType"))
+                        .price(BigDecimal.valueOf(((Number) item.get("price")).doubleValue()))
+                        .currency((String) item.get("currency"))
+                        .quantity((int) item.getOrDefault("quantity", 1))
+                        .build())
+                .collect(Collectors.toList());
+        return EventFactory.createPurchase(userId, (String) eventData.get("orderId"), items,
+                (String) eventData.get("paymentMethod"));
+    }
+
+    private static byte[] json(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.kafkademo.codec;
+
+import com.example.kafkademo.dto.TrackEventRequest;
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.events.interfaces.Event;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class GenericEventCodecTest {
+
+    private final GenericEventCodec codec = new GenericEventCodec();
+
+    @Test
+    void copiesTheTextFieldsThatAreSet() {
+        TrackEventRequest request = new TrackEventRequest();
+        request.setUserId("u1");
+        request.setSessionId("s-1");
+        request.setUserAgent("Mozilla/5.0");
+        request.setIpAddress("203.0.113.7");
+        request.setPageUrl("/search");
+        request.setPageTitle("Search");
+
+        Event event = codec.toEvent(EventType.SEARCH, request);
+
+        assertThat(event.getUserId()).isEqualTo("u1");
+        assertThat(event.getProperties()).containsOnly(
+            entry("sessionId", "s-1"),
+            entry("userAgent", "Mozilla/5.0"),
+            entry("ipAddress", "203.0.113.7"),
+            entry("pageUrl", "/search"),
+            entry("pageTitle", "Search"));
+    }
+
+    @Test
+    void keepsExtraBodyFields() {
+        TrackEventRequest request = new TrackEventRequest();
+        request.setUserId("u1");
+        request.setAttribute("query", "red shoes");
+
+        Event event = codec.toEvent(EventType.SEARCH, request);
+
+        assertThat(event.getProperties()).containsOnly(entry("query", "red shoes"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.kafkademo.config;
+
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.events.AddToCartEvent;
+import com.example.kafkademo.events.GenericEvent;
+import com.example.kafkademo.events.PageViewEvent;
+import com.example.kafkademo.events.PurchaseEvent;
+import com.example.kafkademo.events.interfaces.Event;
+import com.example.kafkademo.product.ItemContext;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KafkaConfigTest {
+
+    private static final String TOPIC = "user-events";
+
+    @Test
+    void pageViewRoundTrip() {
+        roundTrip(PageViewEvent.builder().userId("u1").pageUrl("/home").build(), "page-view", PageViewEvent.class);
+    }
+
+    @Test
+    void addToCartRoundTrip() {
+        roundTrip(new AddToCartEvent("u1", item("sku-1"), 2), "add-to-cart", AddToCartEvent.class);
+    }
+
+    @Test
+    void purchaseRoundTrip() {
+        PurchaseEvent purchase = new PurchaseEvent("u1", "o-1", List.of(item("sku-1")), "card", "EUR",
+                new BigDecimal("9.99"));
+        roundTrip(purchase, "purchase", PurchaseEvent.class);
+    }
+
+    @Test
+    void genericRoundTrip() {
+        GenericEvent search = new GenericEvent("u1", EventType.SEARCH, Map.of("query", "shoes"));
+        Event read = roundTrip(search, "generic", GenericEvent.class);
+        assertThat(read.getProperties()).containsEntry("query", "shoes");
+    }
+
+    private static Event roundTrip(Event event, String typeId, Class<? extends Event> type) {
+        JsonSerializer<Event> serializer = new JsonSerializer<>();
+        serializer.setTypeMapper(KafkaConfig.eventTypeMapper());
+        JsonDeserializer<Event> jsonDeserializer = new JsonDeserializer<>(Event.class);
+        jsonDeserializer.setTypeMapper(KafkaConfig.eventTypeMapper());
+        jsonDeserializer.addTrustedPackages("com.example.kafkademo.events");
+        ErrorHandlingDeserializer<Event> deserializer = new ErrorHandlingDeserializer<>(jsonDeserializer);
+        deserializer.configure(Map.of(), false);
+
+        RecordHeaders headers = new RecordHeaders();
+        byte[] payload = serializer.serialize(TOPIC, headers, event);
+        assertThat(new String(headers.lastHeader("__TypeId__").value(), StandardCharsets.UTF_8)).isEqualTo(typeId);
+
+        Event read = deserializer.deserialize(TOPIC, headers, payload);
+        assertThat(headers.lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER)).isNull();
+        assertThat(read).isInstanceOf(type);
+        assertThat(read.getUserId()).isEqualTo(event.getUserId());
+        assertThat(read.getEventType()).isEqualTo(event.getEventType());
+        return read;
+    }
+
+    private static ItemContext item(String itemId) {
+        return ItemContext.builder()
+                .itemId(itemId)
+                .price(new BigDecimal("4.50"))
+                .currency("EUR")
+                .quantity(1)
+                .build();
+    }
+}
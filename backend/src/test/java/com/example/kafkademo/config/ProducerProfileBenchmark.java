@@ -0,0 +1,136 @@
+package com.example.kafkademo.config;
+
+import com.example.kafkademo.benchmark.Benchmarks;
+import com.example.kafkademo.events.PageViewEvent;
+import com.example.kafkademo.events.PurchaseEvent;
+import com.example.kafkademo.events.interfaces.Event;
+import com.example.kafkademo.product.ItemContext;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Records/sec and send latency of each {@link ProducerProfile}, and of the client defaults,
+ * against an embedded single-node broker. Every profile sends the same JSON-serialized events
+ * keyed by user as fast as the producer accepts them; latency is from {@code send} to the
+ * acknowledgement, so it includes the time a record waits in a batch. Compression gains are
+ * understated: the broker shares the machine and the network is loopback.
+ */
+@Tag("benchmark")
+class ProducerProfileBenchmark {
+
+    private static final String TOPIC = "producer-benchmark";
+    private static final int PARTITIONS = 6;
+    private static final int WARMUP = 20_000;
+    private static final int RECORDS = 200_000;
+    private static final int USERS = 1_000;
+
+    private static EmbeddedKafkaBroker broker;
+    private static List<Event> events;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaBroker(1, false, PARTITIONS, TOPIC);
+        broker.afterPropertiesSet();
+        events = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String userId = "user-" + (i % USERS);
+            events.add(i % 10 == 0
+                    ? new PurchaseEvent(userId, "o-" + i, List.of(item("sku-" + i % 50)), "card", "EUR",
+                            new BigDecimal("19.99"))
+                    : PageViewEvent.builder().userId(userId).pageUrl("/products/" + i % 500)
+                            .pageTitle("Product " + i % 500).referrer("https://example.com/search").build());
+        }
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @Test
+    void throughputAndLatencyPerProfile() throws InterruptedException {
+        run("defaults", null);
+        for (ProducerProfile profile : ProducerProfile.values()) {
+            run(profile.name().toLowerCase(), profile);
+        }
+    }
+
+    private void run(String name, ProducerProfile profile) throws InterruptedException {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        if (profile != null) {
+            profile.apply(config);
+        }
+        JsonSerializer<Event> serializer = new JsonSerializer<>();
+        serializer.setTypeMapper(KafkaConfig.eventTypeMapper());
+        try (KafkaProducer<String, Event> producer = new KafkaProducer<>(config, new StringSerializer(), serializer)) {
+            send(producer, WARMUP);
+            long[] latencies = new long[RECORDS];
+            long start = System.nanoTime();
+            send(producer, latencies);
+            long elapsed = System.nanoTime() - start;
+            Benchmarks.report("producer {}: {} records/s, send latency p50 {} ms, p99 {} ms",
+                    name, Math.round(Benchmarks.perSecond(RECORDS, elapsed)),
+                    millis(Benchmarks.percentile(latencies, 50)), millis(Benchmarks.percentile(latencies, 99)));
+        }
+    }
+
+    private static void send(KafkaProducer<String, Event> producer, int records) throws InterruptedException {
+        send(producer, new long[records]);
+    }
+
+    /**
+     * Sends {@code latencies.length} records, filling in each one's latency, and waits for all acknowledgements.
+     */
+    private static void send(KafkaProducer<String, Event> producer, long[] latencies) throws InterruptedException {
+        CountDownLatch acknowledged = new CountDownLatch(latencies.length);
+        AtomicInteger failed = new AtomicInteger();
+        for (int i = 0; i < latencies.length; i++) {
+            Event event = events.get(i % events.size());
+            int index = i;
+            long sent = System.nanoTime();
+            producer.send(new ProducerRecord<>(TOPIC, event.getUserId(), event), (metadata, e) -> {
+                latencies[index] = System.nanoTime() - sent;
+                if (e != null) {
+                    failed.incrementAndGet();
+                }
+                acknowledged.countDown();
+            });
+        }
+        assertThat(acknowledged.await(5, TimeUnit.MINUTES)).isTrue();
+        assertThat(failed.get()).isZero();
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+
+    private static ItemContext item(String itemId) {
+        return ItemContext.builder()
+                .itemId(itemId)
+                .itemType("BOOK")
+                .price(new BigDecimal("19.99"))
+                .currency("EUR")
+                .quantity(1)
+                .build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.kafkademo.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StorageLayoutTest {
+
+    @Test
+    void resolvesNamesCaseInsensitively() {
+        assertThat(StorageLayout.fromName("timeseries")).isEqualTo(StorageLayout.TIMESERIES);
+        assertThat(StorageLayout.fromName(" Bucket ")).isEqualTo(StorageLayout.BUCKET);
+        assertThat(StorageLayout.fromName("DAILY")).isEqualTo(StorageLayout.DAILY);
+    }
+
+    @Test
+    void blankMeansStandard() {
+        assertThat(StorageLayout.fromName(null)).isEqualTo(StorageLayout.STANDARD);
+        assertThat(StorageLayout.fromName(" ")).isEqualTo(StorageLayout.STANDARD);
+    }
+
+    @Test
+    void rejectsUnknownNames() {
+        assertThatThrownBy(() -> StorageLayout.fromName("time-series"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("time-series")
+            .hasMessageContaining("[standard, timeseries, bucket, daily]");
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.kafkademo.consumer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyOrderedExecutorTest {
+
+    private static final int WORKERS = 4;
+
+    private KeyOrderedExecutor executor;
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        executor.shutdown(5_000);
+    }
+
+    @Test
+    void tasksOfOneKeyRunInSubmissionOrder() throws InterruptedException {
+        executor = new KeyOrderedExecutor(WORKERS, 100, new SimpleMeterRegistry());
+        Map<String, List<Integer>> runs = new ConcurrentHashMap<>();
+
+        for (int i = 0; i < 200; i++) {
+            for (int user = 0; user < 20; user++) {
+                String key = "user-" + user;
+                int sequence = i;
+                executor.submit(key, () -> runs.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(sequence));
+            }
+        }
+        executor.shutdown(5_000);
+
+        List<Integer> expected = IntStream.range(0, 200).boxed().collect(Collectors.toList());
+        assertThat(runs).hasSize(20).allSatisfy((key, sequence) -> assertThat(sequence).isEqualTo(expected));
+    }
+
+    @Test
+    void otherKeysAreNotHeldUpByABlockedKey() throws InterruptedException {
+        executor = new KeyOrderedExecutor(WORKERS, 100, new SimpleMeterRegistry());
+        String slow = "user-slow";
+        String fast = keyOnAnotherWorker(slow);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch fastDone = new CountDownLatch(1);
+
+        executor.submit(slow, () -> await(release));
+        executor.submit(fast, fastDone::countDown);
+
+        assertThat(fastDone.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+    }
+
+    @Test
+    void submitBlocksWhileMaxInFlightTasksAreUnfinished() throws InterruptedException {
+        executor = new KeyOrderedExecutor(WORKERS, 1, new SimpleMeterRegistry());
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit("user-1", () -> await(release));
+
+        AtomicBoolean submitted = new AtomicBoolean();
+        Thread second = new Thread(() -> {
+            try {
+                executor.submit("user-2", () -> { });
+                submitted.set(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        second.start();
+        second.join(300);
+        assertThat(submitted).isFalse();
+        assertThat(executor.inFlight()).isEqualTo(1);
+
+        release.countDown();
+        second.join(5_000);
+        assertThat(submitted).isTrue();
+    }
+
+    @Test
+    void failedTaskReleasesItsPermit() throws InterruptedException {
+        executor = new KeyOrderedExecutor(WORKERS, 1, new SimpleMeterRegistry());
+        executor.submit("user-1", () -> {
+            throw new IllegalStateException("processor failed");
+        });
+        CountDownLatch next = new CountDownLatch(1);
+
+        executor.submit("user-1", next::countDown);
+
+        assertThat(next.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static String keyOnAnotherWorker(String key) {
+        int worker = (key.hashCode() & Integer.MAX_VALUE) % WORKERS;
+        for (int i = 0; ; i++) {
+            String other = "user-" + i;
+            if ((other.hashCode() & Integer.MAX_VALUE) % WORKERS != worker) {
+                return other;
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.kafkademo.controller;
+
+import com.example.kafkademo.codec.EventCodecRegistry;
+import com.example.kafkademo.processor.EventProcessorManager;
+import com.example.kafkademo.processor.InlineEventProcessing;
+import com.example.kafkademo.producer.UserEventProducer;
+import com.example.kafkademo.service.DeadLetterReplayService;
+import com.example.kafkademo.service.EventLogService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class EventControllerTest {
+
+    private UserEventProducer producer;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        producer = mock(UserEventProducer.class);
+        EventController controller = new EventController(producer, mock(EventCodecRegistry.class),
+            mock(EventProcessorManager.class), mock(InlineEventProcessing.class), mock(EventLogService.class), mock(DeadLetterReplayService.class),
+            new ObjectMapper());
+        ReflectionTestUtils.setField(controller, "maxBatchRecords", 2);
+        ReflectionTestUtils.setField(controller, "batchAckTimeoutMs", 1000L);
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void malformedJsonGetsTheErrorShape() throws Exception {
+        mvc.perform(post("/api/events").contentType(MediaType.APPLICATION_JSON).content("{\"userId\": "))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("Invalid request body"))
+            .andExpect(jsonPath("$.message").isNotEmpty())
+            .andExpect(jsonPath("$.timestamp").isNotEmpty());
+        verify(producer, never()).send(any());
+    }
+
+    @Test
+    void mistypedFieldGetsTheErrorShape() throws Exception {
+        mvc.perform(post("/api/events").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\": \"u1\", \"eventType\": \"ADD_TO_CART\", \"price\": \"cheap\"}"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("Invalid request body"));
+        verify(producer, never()).send(any());
+    }
+
+    @Test
+    void batchStopsReadingAtTheLimitAndCountsInvalidLines() throws Exception {
+        MvcResult started = mvc.perform(post("/api/events/batch").contentType("application/x-ndjson")
+                .content("not json\n{\"userId\": \"u1\"}\nnot json\nnot json\n"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.accepted").value(0))
+            .andExpect(jsonPath("$.rejected").value(2))
+            .andExpect(jsonPath("$.truncated").value(true))
+            .andExpect(jsonPath("$.results.length()").value(2));
+        verify(producer, never()).send(any());
+    }
+
+    @Test
+    void batchWithinTheLimitIsNotTruncated() throws Exception {
+        MvcResult started = mvc.perform(post("/api/events/batch").contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"userId\": \"u1\"}]"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rejected").value(1))
+            .andExpect(jsonPath("$.truncated").doesNotExist());
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.kafkademo.producer;
+
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotKeyPartitionerTest {
+
+    private static final String TOPIC = "user-events";
+    private static final int PARTITIONS = 6;
+    private static final Cluster CLUSTER = cluster();
+
+    @Test
+    void coldKeysGoToTheirHashPartition() {
+        HotKeyPartitioner partitioner = partitioner(10, 3);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(partition(partitioner, "user-1")).isEqualTo(home("user-1"));
+        }
+    }
+
+    @Test
+    void hotKeyIsSpreadOverConsecutivePartitionsFromItsHome() {
+        HotKeyPartitioner partitioner = partitioner(10, 3);
+        int home = home("bot");
+
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 2_000; i++) {
+            used.add(partition(partitioner, "bot"));
+        }
+        assertThat(used).containsExactlyInAnyOrder(home, (home + 1) % PARTITIONS, (home + 2) % PARTITIONS);
+    }
+
+    @Test
+    void otherKeysStayOnTheirHomeWhileOneIsHot() {
+        HotKeyPartitioner partitioner = partitioner(10, 3);
+        for (int i = 0; i < 100; i++) {
+            partition(partitioner, "bot");
+        }
+
+        assertThat(partition(partitioner, "user-1")).isEqualTo(home("user-1"));
+    }
+
+    @Test
+    void spreadIsLimitedToThePartitionCount() {
+        HotKeyPartitioner partitioner = partitioner(1, 50);
+
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 2_000; i++) {
+            used.add(partition(partitioner, "bot"));
+        }
+        assertThat(used).hasSize(PARTITIONS);
+    }
+
+    @Test
+    void zeroThresholdDisablesSpreading() {
+        HotKeyPartitioner partitioner = partitioner(0, 3);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(partition(partitioner, "bot")).isEqualTo(home("bot"));
+        }
+    }
+
+    @Test
+    void recordsWithoutKeyGoToAnyPartition() {
+        HotKeyPartitioner partitioner = partitioner(10, 3);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(partitioner.partition(TOPIC, null, null, null, null, CLUSTER))
+                .isBetween(0, PARTITIONS - 1);
+        }
+    }
+
+    private static HotKeyPartitioner partitioner(int threshold, int spread) {
+        HotKeyPartitioner partitioner = new HotKeyPartitioner();
+        partitioner.configure(Map.of(
+            HotKeyPartitioner.THRESHOLD_CONFIG, threshold,
+            HotKeyPartitioner.WINDOW_MS_CONFIG, 60_000,
+            HotKeyPartitioner.SPREAD_CONFIG, spread));
+        return partitioner;
+    }
+
+    private static int partition(HotKeyPartitioner partitioner, String key) {
+        return partitioner.partition(TOPIC, key, bytes(key), null, null, CLUSTER);
+    }
+
+    private static int home(String key) {
+        return Utils.toPositive(Utils.murmur2(bytes(key))) % PARTITIONS;
+    }
+
+    private static byte[] bytes(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Cluster cluster() {
+        Node node = new Node(0, "localhost", 9092);
+        List<PartitionInfo> partitions = new ArrayList<>();
+        for (int i = 0; i < PARTITIONS; i++) {
+            partitions.add(new PartitionInfo(TOPIC, i, node, new Node[] {node}, new Node[] {node}));
+        }
+        return new Cluster("test", List.of(node), partitions, Set.of(), Set.of());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.kafkademo.producer;
+
+import com.example.kafkademo.config.AdmissionProperties;
+import com.example.kafkademo.enums.EventType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InFlightLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void rejectsOnceTheGlobalBudgetIsUsedUp() {
+        InFlightLimiter limiter = limiter(2, null);
+        limiter.acquire(EventType.PAGE_VIEW);
+        limiter.acquire(EventType.CLICK);
+
+        assertThatThrownBy(() -> limiter.acquire(EventType.PAGE_VIEW))
+            .isInstanceOfSatisfying(IngestThrottledException.class, e -> {
+                assertThat(e.getEventType()).isEqualTo(EventType.PAGE_VIEW);
+                assertThat(e.getRetryAfterSeconds()).isEqualTo(3);
+            });
+        assertThat(limiter.inFlight()).isEqualTo(2);
+        assertThat(meterRegistry.get("ingest.admission.rejected").tag("type", "PAGE_VIEW").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void releaseFreesAPermit() {
+        InFlightLimiter limiter = limiter(1, null);
+        limiter.acquire(EventType.PAGE_VIEW);
+        limiter.release(EventType.PAGE_VIEW);
+
+        assertThatCode(() -> limiter.acquire(EventType.PAGE_VIEW)).doesNotThrowAnyException();
+        assertThat(limiter.inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void typeBudgetLeavesOtherTypesAdmitted() {
+        InFlightLimiter limiter = limiter(10, 1);
+        limiter.acquire(EventType.PAGE_VIEW);
+
+        assertThatThrownBy(() -> limiter.acquire(EventType.PAGE_VIEW)).isInstanceOf(IngestThrottledException.class);
+        assertThatCode(() -> limiter.acquire(EventType.PURCHASE)).doesNotThrowAnyException();
+        assertThat(limiter.inFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void globalRejectionGivesTheTypePermitBack() {
+        InFlightLimiter limiter = limiter(1, 1);
+        limiter.acquire(EventType.PURCHASE);
+        assertThatThrownBy(() -> limiter.acquire(EventType.PAGE_VIEW)).isInstanceOf(IngestThrottledException.class);
+
+        limiter.release(EventType.PURCHASE);
+        assertThatCode(() -> limiter.acquire(EventType.PAGE_VIEW)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void disabledAdmitsEverything() {
+        AdmissionProperties properties = properties(1, null);
+        properties.setEnabled(false);
+        InFlightLimiter limiter = new InFlightLimiter(properties, meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(EventType.PAGE_VIEW);
+        }
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    private InFlightLimiter limiter(int maxInFlight, Integer pageViewBudget) {
+        return new InFlightLimiter(properties(maxInFlight, pageViewBudget), meterRegistry);
+    }
+
+    private static AdmissionProperties properties(int maxInFlight, Integer pageViewBudget) {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setMaxInFlight(maxInFlight);
+        properties.setRetryAfterSeconds(3);
+        if (pageViewBudget != null) {
+            properties.getPerType().put(EventType.PAGE_VIEW, pageViewBudget);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.kafkademo.repository;
+
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.model.EventDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BucketEventStoreTest extends MongoStoreTestSupport {
+
+    private static final long HOUR = 3_600_000L;
+    // An hour start, so offsets below stay within their hour
+    private static final long H0 = 1_699_999_200_000L;
+
+    private BucketEventStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new BucketEventStore(mongoTemplate, mongoTemplate, writeTemplates, 2, 30);
+        store.afterPropertiesSet();
+        store.insert(new ArrayList<>(List.of(
+            event("a", "u1", EventType.PAGE_VIEW, H0 + 10),
+            event("b", "u1", EventType.ADD_TO_CART, H0 + 20),
+            event("c", "u1", EventType.PAGE_VIEW, H0 + 30),
+            event("d", "u1", EventType.PURCHASE, H0 + 40),
+            event("e", "u1", EventType.PAGE_VIEW, H0 + HOUR + 10),
+            // Same timestamp as e: ordered by event id
+            event("f", "u1", EventType.PAGE_VIEW, H0 + HOUR + 10),
+            event("x", "u2", EventType.PAGE_VIEW, H0 + 15))));
+    }
+
+    @Test
+    void fullBucketsAreContinuedInNewOnes() {
+        long buckets = mongoTemplate.getCollection(BucketEventStore.COLLECTION).countDocuments(new Document("u", "u1"));
+
+        assertThat(buckets).isEqualTo(3);
+    }
+
+    @Test
+    void findsTheUsersEventsNewestFirstAcrossBuckets() {
+        assertThat(ids(store.find(query().build(), 100))).containsExactly("f", "e", "d", "c", "b", "a");
+    }
+
+    @Test
+    void filtersByType() {
+        assertThat(ids(store.find(query().eventType(EventType.PAGE_VIEW).build(), 100)))
+            .containsExactly("f", "e", "c", "a");
+    }
+
+    @Test
+    void filtersByTimeRange() {
+        EventQuery range = query().from(H0 + 20).to(H0 + HOUR + 10).build();
+
+        assertThat(ids(store.find(range, 100))).containsExactly("d", "c", "b");
+    }
+
+    @Test
+    void pagesWithCursorsWithoutGapsOrRepeats() {
+        List<String> seen = new ArrayList<>();
+        EventCursor after = null;
+        do {
+            List<EventDocument> page = store.find(query().after(after).build(), 2);
+            page.forEach(doc -> seen.add(doc.getEventId()));
+            EventDocument last = page.isEmpty() ? null : page.get(page.size() - 1);
+            after = page.size() == 2 ? new EventCursor(last.getTimestamp(), last.getId()) : null;
+        } while (after != null);
+
+        assertThat(seen).containsExactly("f", "e", "d", "c", "b", "a");
+    }
+
+    @Test
+    void cursorWithinEqualTimestampsContinuesByEventId() {
+        EventCursor afterF = new EventCursor(H0 + HOUR + 10, "f");
+
+        assertThat(ids(store.find(query().after(afterF).build(), 2))).containsExactly("e", "d");
+    }
+
+    @Test
+    void streamsEverythingAndClosesTheCursor() {
+        try (Stream<EventDocument> events = store.stream(query().build())) {
+            assertThat(events.map(EventDocument::getEventId)).containsExactly("f", "e", "d", "c", "b", "a");
+        }
+    }
+
+    private static EventQuery.EventQueryBuilder query() {
+        return EventQuery.builder().userId("u1");
+    }
+
+    private static List<String> ids(List<EventDocument> docs) {
+        return docs.stream().map(EventDocument::getEventId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.kafkademo.repository;
+
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.model.EventDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DailyEventStoreTest extends MongoStoreTestSupport {
+
+    private static final long DAY = 86_400_000L;
+    // 2023-11-14T00:00:00Z
+    private static final long D0 = 1_699_920_000_000L;
+
+    private DailyEventStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new DailyEventStore(mongoTemplate, mongoTemplate, writeTemplates, reactiveTemplate, 30);
+        store.insert(new ArrayList<>(List.of(
+            event("a", "u1", EventType.PAGE_VIEW, D0 + 10),
+            event("b", "u1", EventType.ADD_TO_CART, D0 + DAY - 1),
+            event("c", "u1", EventType.PAGE_VIEW, D0 + DAY),
+            event("d", "u1", EventType.PURCHASE, D0 + 2 * DAY + 10),
+            event("x", "u2", EventType.PAGE_VIEW, D0 + 20))));
+    }
+
+    @Test
+    void writesOneCollectionPerUtcDay() {
+        assertThat(mongoTemplate.getCollectionNames())
+            .contains("user-events-2023-11-14", "user-events-2023-11-15", "user-events-2023-11-16");
+        assertThat(mongoTemplate.getCollection("user-events-2023-11-14").countDocuments()).isEqualTo(3);
+    }
+
+    @Test
+    void findsNewestFirstAcrossDays() {
+        assertThat(ids(store.find(query().build(), 100))).containsExactly("d", "c", "b", "a");
+        assertThat(ids(store.find(query().build(), 3))).containsExactly("d", "c", "b");
+    }
+
+    @Test
+    void filtersByTypeAndTimeRange() {
+        assertThat(ids(store.find(query().eventType(EventType.PAGE_VIEW).build(), 100))).containsExactly("c", "a");
+        assertThat(ids(store.find(query().from(D0 + DAY - 1).to(D0 + 2 * DAY + 10).build(), 100)))
+            .containsExactly("c", "b");
+    }
+
+    @Test
+    void pagesAcrossDayBoundaries() {
+        List<String> seen = new ArrayList<>();
+        EventCursor after = null;
+        do {
+            List<EventDocument> page = store.find(query().after(after).build(), 1);
+            page.forEach(doc -> seen.add(doc.getEventId()));
+            after = page.isEmpty() ? null : new EventCursor(page.get(0).getTimestamp(), page.get(0).getId());
+        } while (after != null);
+
+        assertThat(seen).containsExactly("d", "c", "b", "a");
+    }
+
+    @Test
+    void streamAndFluxReadTheSameEvents() {
+        List<String> streamed;
+        try (Stream<EventDocument> events = store.stream(query().build())) {
+            streamed = events.map(EventDocument::getEventId).collect(Collectors.toList());
+        }
+        List<String> emitted = store.flux(query().build(), Schedulers.boundedElastic())
+            .map(EventDocument::getEventId)
+            .collectList()
+            .block();
+
+        assertThat(streamed).containsExactly("d", "c", "b", "a");
+        assertThat(emitted).isEqualTo(streamed);
+    }
+
+    @Test
+    void dropsDaysPastRetentionOnly() {
+        long now = System.currentTimeMillis();
+        store.insert(new ArrayList<>(List.of(
+            event("old", "u1", EventType.PAGE_VIEW, now - 40 * DAY),
+            event("new", "u1", EventType.PAGE_VIEW, now))));
+        mongoTemplate.createCollection("user-events-archive");
+
+        store.dropExpiredDays();
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        assertThat(mongoTemplate.getCollectionNames())
+            .contains("user-events-" + today, "user-events-archive")
+            .doesNotContain("user-events-" + today.minusDays(40), "user-events-2023-11-14");
+    }
+
+    @Test
+    void clearDropsEveryDayButNothingElse() {
+        mongoTemplate.createCollection("user-events-archive");
+
+        store.clear();
+
+        assertThat(store.find(query().build(), 100)).isEmpty();
+        assertThat(mongoTemplate.getCollectionNames()).containsExactly("user-events-archive");
+    }
+
+    private static EventQuery.EventQueryBuilder query() {
+        return EventQuery.builder().userId("u1");
+    }
+
+    private static List<String> ids(List<EventDocument> docs) {
+        return docs.stream().map(EventDocument::getEventId).collect(Collectors.toList());
+    }
+}
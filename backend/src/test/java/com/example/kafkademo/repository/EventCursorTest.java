@@ -0,0 +1,52 @@
+package com.example.kafkademo.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventCursorTest {
+
+    @Test
+    void decodesWhatItEncodes() {
+        EventCursor cursor = new EventCursor(1_700_000_000_000L, "4f1c7e0a-2d6b-4c8e-9b1a-0f3e5d7c9a11");
+
+        assertThat(EventCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void idMayContainTheSeparator() {
+        EventCursor cursor = new EventCursor(42L, "a:b");
+
+        assertThat(EventCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = new EventCursor(Long.MAX_VALUE, "???>>>").encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"12345", ":id", "12345:", "later:id"})
+    void rejectsMalformedValues(String value) {
+        String token = Base64.getUrlEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> EventCursor.decode(token))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void rejectsTokensThatAreNotBase64() {
+        assertThatThrownBy(() -> EventCursor.decode("not a cursor!"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid cursor");
+    }
+}
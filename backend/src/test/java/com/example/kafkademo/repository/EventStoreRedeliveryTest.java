@@ -0,0 +1,102 @@
+package com.example.kafkademo.repository;
+
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.model.EventDocument;
+import com.mongodb.ErrorCategory;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.TimeSeriesOptions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+/**
+ * A batch delivered again after a rebalance or a failed commit must not store its events twice.
+ */
+class EventStoreRedeliveryTest extends MongoStoreTestSupport {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Test
+    void standardLayoutRejectsRedeliveredEventsAsDuplicates() {
+        EventStore store = new DocumentEventStore(mongoTemplate, mongoTemplate, writeTemplates, reactiveTemplate, false);
+        assertThat(store.insert(batch())).isEqualTo(3);
+
+        assertOnlyDuplicates(catchThrowableOfType(() -> store.insert(batch()), BulkOperationException.class), 3);
+        assertThat(stored(store)).hasSize(3);
+    }
+
+    @Test
+    void timeSeriesLayoutSkipsRedeliveredEvents() {
+        mongoTemplate.getDb().createCollection(mongoTemplate.getCollectionName(EventDocument.class),
+            new CreateCollectionOptions().timeSeriesOptions(new TimeSeriesOptions("event_time").metaField("user_id")));
+        EventStore store = new DocumentEventStore(mongoTemplate, mongoTemplate, writeTemplates, reactiveTemplate, true);
+        assertThat(store.insert(batch())).isEqualTo(3);
+
+        assertThat(store.insert(batch())).isZero();
+        assertThat(stored(store)).hasSize(3);
+    }
+
+    @Test
+    void bucketLayoutSkipsRedeliveredEvents() {
+        BucketEventStore store = new BucketEventStore(mongoTemplate, mongoTemplate, writeTemplates, 2, 30);
+        store.afterPropertiesSet();
+        assertThat(store.insert(batch())).isEqualTo(3);
+
+        assertThat(store.insert(batch())).isZero();
+        assertThat(stored(store)).hasSize(3);
+    }
+
+    @Test
+    void bucketLayoutStoresOnlyTheNewEventsOfAPartlyRedeliveredBatch() {
+        BucketEventStore store = new BucketEventStore(mongoTemplate, mongoTemplate, writeTemplates, 2, 30);
+        store.afterPropertiesSet();
+        store.insert(batch());
+
+        List<EventDocument> again = batch();
+        again.add(event("e-4", "u1", EventType.PURCHASE, T0 + 3));
+        assertThat(store.insert(again)).isEqualTo(1);
+        assertThat(stored(store)).extracting(EventDocument::getEventId)
+            .containsExactly("e-4", "e-3", "e-2", "e-1");
+    }
+
+    @Test
+    void dailyLayoutRejectsRedeliveredEventsAsDuplicates() {
+        DailyEventStore store = new DailyEventStore(mongoTemplate, mongoTemplate, writeTemplates, reactiveTemplate, 30);
+        List<EventDocument> batch = batch();
+        // Spread over two days, so the batch is written as two bulks
+        batch.add(event("e-4", "u1", EventType.PAGE_VIEW, T0 + 24 * HOUR));
+        assertThat(store.insert(batch)).isEqualTo(4);
+
+        List<EventDocument> again = batch();
+        again.add(event("e-4", "u1", EventType.PAGE_VIEW, T0 + 24 * HOUR));
+        assertOnlyDuplicates(catchThrowableOfType(() -> store.insert(again), BulkOperationException.class), 4);
+        assertThat(stored(store)).hasSize(4);
+    }
+
+    private static void assertOnlyDuplicates(BulkOperationException e, int count) {
+        assertThat(e).isNotNull();
+        assertThat(e.getErrors()).hasSize(count)
+            .allSatisfy(error -> assertThat(ErrorCategory.fromErrorCode(error.getCode()))
+                .isEqualTo(ErrorCategory.DUPLICATE_KEY));
+    }
+
+    private static List<EventDocument> stored(EventStore store) {
+        return store.find(EventQuery.builder().userId("u1").build(), 100);
+    }
+
+    /**
+     * The same three events, decoded afresh as a redelivery would be.
+     */
+    private static List<EventDocument> batch() {
+        return new ArrayList<>(List.of(
+            event("e-1", "u1", EventType.PAGE_VIEW, T0),
+            event("e-2", "u1", EventType.ADD_TO_CART, T0 + 1),
+            event("e-3", "u1", EventType.PURCHASE, T0 + 2)));
+    }
+}
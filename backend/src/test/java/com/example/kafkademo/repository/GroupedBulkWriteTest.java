@@ -0,0 +1,135 @@
+package com.example.kafkademo.repository;
+
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.model.EventDocument;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GroupedBulkWriteTest {
+
+    private final Map<String, List<String>> written = new LinkedHashMap<>();
+    // Event ids each group's bulk fails for, with the error code
+    private final Map<String, Integer> failures = new LinkedHashMap<>();
+
+    @Test
+    void singleGroupIsOneBulkOverAllDocuments() {
+        List<EventDocument> docs = docs("a:w1", "b:w1", "c:w1");
+
+        assertThat(execute(docs, GroupedBulkWriteTest::group)).isEqualTo(3);
+        assertThat(written).containsExactly(Map.entry("w1", List.of("a", "b", "c")));
+    }
+
+    @Test
+    void groupsKeepTheirDocumentsInOrder() {
+        List<EventDocument> docs = docs("a:w1", "b:majority", "c:w1", "d:majority");
+
+        assertThat(execute(docs, GroupedBulkWriteTest::group)).isEqualTo(4);
+        assertThat(written).containsExactly(
+            Map.entry("w1", List.of("a", "c")),
+            Map.entry("majority", List.of("b", "d")));
+    }
+
+    @Test
+    void errorIndexesReferToTheFullList() {
+        List<EventDocument> docs = docs("a:w1", "b:majority", "c:w1", "d:majority", "e:majority");
+        failures.put("c", 11000);
+        failures.put("e", 121);
+
+        BulkOperationException e = catchThrowableOfType(() -> execute(docs, GroupedBulkWriteTest::group),
+            BulkOperationException.class);
+
+        assertThat(e.getErrors()).extracting(BulkWriteError::getIndex, BulkWriteError::getCode)
+            .containsExactly(tuple(2, 11000), tuple(4, 121));
+        assertThat(e.getResult().getInsertedCount()).isEqualTo(3);
+    }
+
+    @Test
+    void errorIndexesOfASingleGroupAreUnchanged() {
+        List<EventDocument> docs = docs("a:w1", "b:w1", "c:w1");
+        failures.put("b", 11000);
+
+        BulkOperationException e = catchThrowableOfType(() -> execute(docs, GroupedBulkWriteTest::group),
+            BulkOperationException.class);
+
+        assertThat(e.getErrors()).extracting(BulkWriteError::getIndex).containsExactly(1);
+    }
+
+    @Test
+    void nullKeyLeavesTheDocumentOut() {
+        List<EventDocument> docs = docs("a:w1", "b:skip", "c:w1");
+        failures.put("c", 11000);
+
+        BulkOperationException e = catchThrowableOfType(
+            () -> execute(docs, doc -> "skip".equals(group(doc)) ? null : group(doc)), BulkOperationException.class);
+
+        assertThat(written).containsExactly(Map.entry("w1", List.of("a", "c")));
+        assertThat(e.getErrors()).extracting(BulkWriteError::getIndex).containsExactly(2);
+    }
+
+    @Test
+    void nothingIsWrittenWhenEveryDocumentIsLeftOut() {
+        assertThat(execute(docs("a:skip", "b:skip"), doc -> null)).isZero();
+        assertThat(written).isEmpty();
+    }
+
+    private int execute(List<EventDocument> docs, Function<EventDocument, String> groupBy) {
+        return GroupedBulkWrite.execute(docs, groupBy, this::prepare, BulkWriteResult::getInsertedCount);
+    }
+
+    /**
+     * A bulk that records its documents and fails for those listed in {@link #failures}.
+     */
+    private BulkOperations prepare(String group, List<EventDocument> docs) {
+        written.put(group, docs.stream().map(EventDocument::getEventId).collect(Collectors.toList()));
+        List<BulkWriteError> errors = new ArrayList<>();
+        for (int i = 0; i < docs.size(); i++) {
+            Integer code = failures.get(docs.get(i).getEventId());
+            if (code != null) {
+                errors.add(new BulkWriteError(code, "failed", new BsonDocument(), i));
+            }
+        }
+        BulkWriteResult result = BulkWriteResult.acknowledged(docs.size() - errors.size(), 0, 0, 0,
+            Collections.emptyList());
+        BulkOperations bulk = mock(BulkOperations.class);
+        if (errors.isEmpty()) {
+            when(bulk.execute()).thenReturn(result);
+        } else {
+            when(bulk.execute()).thenThrow(new BulkOperationException("failed", errors, result));
+        }
+        return bulk;
+    }
+
+    /**
+     * Documents written as {@code eventId:group}; the group is kept as the user id.
+     */
+    private static List<EventDocument> docs(String... specs) {
+        List<EventDocument> docs = new ArrayList<>();
+        for (String spec : specs) {
+            String[] parts = spec.split(":");
+            docs.add(new EventDocument(parts[0], parts[1], EventType.PAGE_VIEW, 0L, Map.of()));
+        }
+        return docs;
+    }
+
+    private static String group(EventDocument doc) {
+        return doc.getUserId();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.kafkademo.repository;
+
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.model.EventDocument;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs store tests against a single-node MongoDB replica set in Docker, on a freshly dropped
+ * database per test. Skipped where Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+abstract class MongoStoreTestSupport {
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:6.0");
+
+    private MongoClient client;
+    private com.mongodb.reactivestreams.client.MongoClient reactiveClient;
+
+    protected MongoTemplate mongoTemplate;
+    protected ReactiveMongoTemplate reactiveTemplate;
+    protected EventWriteTemplates writeTemplates;
+
+    @BeforeEach
+    void connect() {
+        client = MongoClients.create(MONGO.getReplicaSetUrl());
+        reactiveClient = com.mongodb.reactivestreams.client.MongoClients.create(MONGO.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(client, "events-test");
+        mongoTemplate.getDb().drop();
+        reactiveTemplate = new ReactiveMongoTemplate(reactiveClient, "events-test");
+        writeTemplates = new EventWriteTemplates(mongoTemplate, WriteConcern.W1, Map.of());
+    }
+
+    @AfterEach
+    void disconnect() {
+        reactiveClient.close();
+        client.close();
+    }
+
+    protected static EventDocument event(String eventId, String userId, EventType type, long timestamp) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("source", "test");
+        return new EventDocument(eventId, userId, type, timestamp, properties);
+    }
+}
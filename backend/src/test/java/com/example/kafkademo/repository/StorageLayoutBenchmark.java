@@ -0,0 +1,104 @@
+package com.example.kafkademo.repository;
+
+import com.example.kafkademo.benchmark.Benchmarks;
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.model.EventDocument;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.TimeSeriesGranularity;
+import com.mongodb.client.model.TimeSeriesOptions;
+import org.bson.Document;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Write throughput and on-disk size of the {@code standard} and {@code timeseries} layouts for
+ * the same events, written through {@link DocumentEventStore} in consumer-sized batches with
+ * the indexes each layout gets at startup. Sizes are WiredTiger's compressed sizes after a
+ * checkpoint.
+ */
+@Tag("benchmark")
+class StorageLayoutBenchmark extends MongoStoreTestSupport {
+
+    private static final int EVENTS = 200_000;
+    private static final int BATCH = 500;
+    private static final int USERS = 1_000;
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Test
+    void standard() {
+        String collection = mongoTemplate.getCollectionName(EventDocument.class);
+        createQueryIndexes(collection);
+        mongoTemplate.getCollection(collection).createIndex(new Document("created_at", 1),
+            new IndexOptions().expireAfter(30L, TimeUnit.DAYS));
+        run("standard", new DocumentEventStore(mongoTemplate, mongoTemplate, writeTemplates, reactiveTemplate, false),
+            collection);
+    }
+
+    @Test
+    void timeSeries() {
+        String collection = mongoTemplate.getCollectionName(EventDocument.class);
+        mongoTemplate.getDb().createCollection(collection, new CreateCollectionOptions()
+            .timeSeriesOptions(new TimeSeriesOptions("event_time").metaField("user_id")
+                .granularity(TimeSeriesGranularity.SECONDS))
+            .expireAfter(30L, TimeUnit.DAYS));
+        createQueryIndexes(collection);
+        mongoTemplate.getCollection(collection).createIndex(new Document("event_id", 1));
+        run("timeseries", new DocumentEventStore(mongoTemplate, mongoTemplate, writeTemplates, reactiveTemplate, true),
+            "system.buckets." + collection);
+    }
+
+    private void run(String layout, EventStore store, String storedCollection) {
+        long start = System.nanoTime();
+        int stored = 0;
+        for (int offset = 0; offset < EVENTS; offset += BATCH) {
+            stored += store.insert(batch(offset));
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(stored).isEqualTo(EVENTS);
+
+        mongoTemplate.getMongoDatabaseFactory().getMongoDatabase("admin").runCommand(new Document("fsync", 1));
+        Document stats = mongoTemplate.getDb().runCommand(new Document("collStats", storedCollection));
+        Benchmarks.report("layout {}: {} events/s, data {} MiB on disk, indexes {} MiB",
+            layout, Math.round(Benchmarks.perSecond(EVENTS, elapsed)),
+            mebibytes(stats.get("storageSize")), mebibytes(stats.get("totalIndexSize")));
+    }
+
+    /**
+     * The newest-first lookups by user that MongoIndexManager creates for both layouts.
+     */
+    private void createQueryIndexes(String collection) {
+        mongoTemplate.getCollection(collection).createIndex(new Document("user_id", 1).append("event_type", 1)
+            .append("timestamp", -1).append("_id", -1));
+        mongoTemplate.getCollection(collection).createIndex(new Document("user_id", 1)
+            .append("timestamp", -1).append("_id", -1));
+    }
+
+    /**
+     * Events {@code offset} to {@code offset + BATCH}, spread over the users and 100 ms apart.
+     */
+    static List<EventDocument> batch(int offset) {
+        List<EventDocument> docs = new ArrayList<>(BATCH);
+        for (int i = offset; i < offset + BATCH; i++) {
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("url", "/products/" + i % 500);
+            properties.put("pageTitle", "Product " + i % 500);
+            properties.put("referrer", "https://example.com/search");
+            docs.add(new EventDocument("event-" + i, "user-" + i % USERS,
+                i % 10 == 0 ? EventType.ADD_TO_CART : EventType.PAGE_VIEW, T0 + i * 100L, properties));
+        }
+        return docs;
+    }
+
+    private static String mebibytes(Object bytes) {
+        return String.format("%.1f", ((Number) bytes).longValue() / (1024.0 * 1024.0));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.kafkademo.repository;
+
+import com.example.kafkademo.benchmark.Benchmarks;
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.model.EventDocument;
+import com.mongodb.WriteConcern;
+import org.bson.Document;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Insert throughput of the standard layout under one write concern for every event type, and
+ * under the default tiers ({@code w1}, PURCHASE {@code majority}), which split each batch into
+ * one bulk per concern. The container is a single-node replica set, where {@code majority}
+ * costs about what a journal flush does; on a three-node set it also waits for a secondary.
+ */
+@Tag("benchmark")
+class WriteConcernBenchmark extends MongoStoreTestSupport {
+
+    private static final int EVENTS = 100_000;
+    private static final int BATCH = 500;
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Test
+    void throughputPerWriteConcern() {
+        run("w1", WriteConcern.W1, Map.of());
+        run("journaled", WriteConcern.JOURNALED, Map.of());
+        run("majority", WriteConcern.MAJORITY, Map.of());
+        run("w1, PURCHASE majority", WriteConcern.W1, Map.of(EventType.PURCHASE, WriteConcern.MAJORITY));
+    }
+
+    private void run(String name, WriteConcern defaultConcern, Map<EventType, WriteConcern> concerns) {
+        mongoTemplate.getDb().drop();
+        String collection = mongoTemplate.getCollectionName(EventDocument.class);
+        mongoTemplate.getCollection(collection).createIndex(new Document("user_id", 1)
+            .append("timestamp", -1).append("_id", -1));
+        EventWriteTemplates templates = new EventWriteTemplates(mongoTemplate, defaultConcern, concerns);
+        EventStore store = new DocumentEventStore(mongoTemplate, mongoTemplate, templates, reactiveTemplate, false);
+
+        long[] latencies = new long[EVENTS / BATCH];
+        long start = System.nanoTime();
+        int stored = 0;
+        for (int n = 0; n < latencies.length; n++) {
+            List<EventDocument> batch = batch(n * BATCH);
+            long batchStart = System.nanoTime();
+            stored += store.insert(batch);
+            latencies[n] = System.nanoTime() - batchStart;
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(stored).isEqualTo(EVENTS);
+        Benchmarks.report("write concern {}: {} events/s, batch p50 {} ms, p99 {} ms",
+            name, Math.round(Benchmarks.perSecond(EVENTS, elapsed)),
+            millis(Benchmarks.percentile(latencies, 50)), millis(Benchmarks.percentile(latencies, 99)));
+    }
+
+    /**
+     * Events {@code offset} to {@code offset + BATCH}; one in twenty is a purchase.
+     */
+    private static List<EventDocument> batch(int offset) {
+        List<EventDocument> docs = new ArrayList<>(BATCH);
+        for (int i = offset; i < offset + BATCH; i++) {
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("url", "/products/" + i % 500);
+            EventType type = i % 20 == 0 ? EventType.PURCHASE : EventType.PAGE_VIEW;
+            docs.add(new EventDocument("event-" + i, "user-" + i % 1_000, type, T0 + i * 100L, properties));
+        }
+        return docs;
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.kafkademo.serialization;
+
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.events.AddToCartEvent;
+import com.example.kafkademo.events.GenericEvent;
+import com.example.kafkademo.events.PageViewEvent;
+import com.example.kafkademo.events.PurchaseEvent;
+import com.example.kafkademo.events.interfaces.Event;
+import com.example.kafkademo.product.ItemContext;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * One round trip through each wire schema, including properties set to {@code null}.
+ */
+class AvroEventSerializerTest {
+
+    private static final String TOPIC = "user-events";
+
+    private final LocalSchemaRegistry registry = new LocalSchemaRegistry();
+    private final AvroEventSerializer serializer = new AvroEventSerializer(registry);
+    private final AvroEventDeserializer deserializer = new AvroEventDeserializer(registry);
+
+    @Test
+    void pageViewWithoutUrl() {
+        // The constructor always sets the url property, here to null
+        PageViewEvent view = PageViewEvent.builder().userId("u1").pageTitle("Home").build();
+
+        PageViewEvent read = (PageViewEvent) roundTrip(view);
+        assertThat(read.getPageUrl()).isNull();
+        assertThat(read.getPageTitle()).isEqualTo("Home");
+        assertThat(read.getProperties()).doesNotContainKey("url").containsEntry("pageTitle", "Home");
+    }
+
+    @Test
+    void addToCart() {
+        AddToCartEvent cart = new AddToCartEvent("u1", item("sku-1"), 2);
+        cart.addProperty("coupon", null);
+
+        AddToCartEvent read = (AddToCartEvent) roundTrip(cart);
+        assertThat(read.getItem()).isEqualTo(cart.getItem());
+        assertThat(read.getValue()).isEqualByComparingTo(cart.getValue());
+        assertThat(read.getProperties()).doesNotContainKey("coupon");
+    }
+
+    @Test
+    void purchase() {
+        PurchaseEvent order = new PurchaseEvent("u1", "o-1", List.of(item("sku-1"), item("sku-2")), "card", "EUR",
+                new BigDecimal("9.00"));
+        order.addProperty("note", null);
+
+        PurchaseEvent read = (PurchaseEvent) roundTrip(order);
+        assertThat(read.getOrderId()).isEqualTo("o-1");
+        assertThat(read.getItems()).containsExactlyElementsOf(order.getItems());
+        assertThat(read.getValue()).isEqualByComparingTo("9.00");
+        assertThat(read.getProperties()).doesNotContainKey("note");
+    }
+
+    @Test
+    void generic() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("query", "shoes");
+        properties.put("filter", null);
+
+        Event read = roundTrip(new GenericEvent("u1", EventType.SEARCH, properties));
+        assertThat(read).isInstanceOf(GenericEvent.class);
+        assertThat(read.getProperties()).containsExactly(Map.entry("query", "shoes"));
+    }
+
+    private Event roundTrip(Event event) {
+        Event read = deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, event));
+        assertThat(read.getEventId()).isEqualTo(event.getEventId());
+        assertThat(read.getUserId()).isEqualTo(event.getUserId());
+        assertThat(read.getTimestamp()).isEqualTo(event.getTimestamp());
+        assertThat(read.getEventType()).isEqualTo(event.getEventType());
+        return read;
+    }
+
+    private static ItemContext item(String itemId) {
+        return ItemContext.builder()
+                .itemId(itemId)
+                .itemType("BOOK")
+                .price(new BigDecimal("4.50"))
+                .currency("EUR")
+                .quantity(2)
+                .build();
+    }
+}
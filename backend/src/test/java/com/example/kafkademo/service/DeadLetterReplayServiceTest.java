@@ -0,0 +1,164 @@
+package com.example.kafkademo.service;
+
+import com.example.kafkademo.consumer.PersistenceRetryConsumer;
+import com.example.kafkademo.consumer.PersistenceRetryMetrics;
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.events.GenericEvent;
+import com.example.kafkademo.events.interfaces.Event;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DeadLetterReplayServiceTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition(PersistenceRetryConsumer.DLT, 0);
+
+    private final MockConsumer<String, Event> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    private final EventLogService eventLogService = mock(EventLogService.class);
+    private DeadLetterReplayService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ConsumerFactory<String, Event> consumerFactory = mock(ConsumerFactory.class);
+        when(consumerFactory.createConsumer(eq(DeadLetterReplayService.REPLAY_GROUP), isNull(), isNull(),
+            any(Properties.class))).thenReturn(consumer);
+        // No broker: the DLT size refresh after a replay just times out
+        KafkaAdmin kafkaAdmin = new KafkaAdmin(Map.of(
+            AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:1",
+            AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, 500,
+            AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, 500));
+        service = new DeadLetterReplayService(consumerFactory, eventLogService,
+            new PersistenceRetryMetrics(new SimpleMeterRegistry()), kafkaAdmin);
+
+        consumer.updatePartitions(PersistenceRetryConsumer.DLT,
+            List.of(new PartitionInfo(PersistenceRetryConsumer.DLT, 0, Node.noNode(), new Node[0], new Node[0])));
+        consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    void emptyPollsRightAfterAssignmentDoNotEndTheReplay() {
+        consumer.updateEndOffsets(Map.of(PARTITION, 2L));
+        consumer.schedulePollTask(() -> { });
+        consumer.schedulePollTask(() -> { });
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(0));
+            consumer.addRecord(record(1));
+        });
+
+        DeadLetterReplayService.ReplayStatus started = service.start(100, 1000);
+        assertThat(started.getState()).isEqualTo(DeadLetterReplayService.ReplayState.RUNNING);
+
+        DeadLetterReplayService.ReplayStatus finished = awaitFinished();
+        assertThat(finished.getState()).isEqualTo(DeadLetterReplayService.ReplayState.COMPLETED);
+        assertThat(finished.getReplayed()).isEqualTo(2);
+        assertThat(finished.isDrained()).isTrue();
+        assertThat(storedEvents()).hasSize(2);
+    }
+
+    @Test
+    void stopsAtMaxRecordsWithoutClaimingToBeDrained() {
+        consumer.updateEndOffsets(Map.of(PARTITION, 3L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(0));
+            consumer.addRecord(record(1));
+            consumer.addRecord(record(2));
+        });
+
+        service.start(2, 1000);
+
+        DeadLetterReplayService.ReplayStatus finished = awaitFinished();
+        assertThat(finished.getReplayed()).isEqualTo(2);
+        assertThat(finished.isDrained()).isFalse();
+        assertThat(storedEvents()).hasSize(2);
+    }
+
+    @Test
+    void emptyTopicIsDrainedAtOnce() {
+        consumer.updateEndOffsets(Map.of(PARTITION, 0L));
+
+        service.start(100, 1000);
+
+        DeadLetterReplayService.ReplayStatus finished = awaitFinished();
+        assertThat(finished.getReplayed()).isZero();
+        assertThat(finished.isDrained()).isTrue();
+    }
+
+    @Test
+    void aSecondReplayIsRefusedWhileOneRuns() throws InterruptedException {
+        consumer.updateEndOffsets(Map.of(PARTITION, 1L));
+        CountDownLatch polling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        consumer.schedulePollTask(() -> {
+            polling.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        service.start(100, 1000);
+        polling.await();
+
+        assertThatThrownBy(() -> service.start(100, 1000)).isInstanceOf(IllegalStateException.class);
+        release.countDown();
+    }
+
+    private DeadLetterReplayService.ReplayStatus awaitFinished() {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (service.status().getState() == DeadLetterReplayService.ReplayState.RUNNING) {
+            assertThat(System.currentTimeMillis()).as("replay finished in time").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        return service.status();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Event> storedEvents() {
+        ArgumentCaptor<List<Event>> stored = ArgumentCaptor.forClass(List.class);
+        verify(eventLogService, atLeastOnce()).logEvents(stored.capture());
+        return stored.getAllValues().stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    private static ConsumerRecord<String, Event> record(long offset) {
+        return new ConsumerRecord<>(PersistenceRetryConsumer.DLT, 0, offset, "u1",
+            new GenericEvent("u1", EventType.SEARCH, Map.of()));
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.kafkademo.service;
+
+import com.example.kafkademo.codec.EventCodec;
+import com.example.kafkademo.codec.EventCodecRegistry;
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.events.GenericEvent;
+import com.example.kafkademo.events.interfaces.Event;
+import com.example.kafkademo.model.EventDocument;
+import com.example.kafkademo.repository.EventQuery;
+import com.example.kafkademo.repository.EventStore;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EventStorageServiceTest {
+
+    private static final int DUPLICATE_KEY = 11000;
+    private static final int DOCUMENT_VALIDATION = 121;
+
+    private final EventStore eventStore = mock(EventStore.class);
+    private final RecentEventsCache cache = new RecentEventsCache(100, 10, 60_000, new SimpleMeterRegistry());
+    private EventStorageService service;
+
+    @BeforeEach
+    void setUp() {
+        EventCodecRegistry registry = mock(EventCodecRegistry.class);
+        when(registry.codecFor(any())).thenReturn(mock(EventCodec.class, CALLS_REAL_METHODS));
+        service = new EventStorageService(eventStore, registry, Optional.of(cache), Optional.empty(),
+            Schedulers.immediate());
+    }
+
+    @Test
+    void redeliveredEventsAreNotFailures() {
+        List<Event> batch = batch();
+        when(eventStore.insert(any())).thenThrow(failure(1, error(DUPLICATE_KEY, 0), error(DUPLICATE_KEY, 1)));
+
+        assertThat(service.saveEvents(batch)).isEqualTo(1);
+    }
+
+    @Test
+    void otherFailuresAreThrownWithoutTheDuplicates() {
+        when(eventStore.insert(any())).thenThrow(failure(1, error(DUPLICATE_KEY, 0), error(DOCUMENT_VALIDATION, 2)));
+
+        BulkOperationException e = catchThrowableOfType(() -> service.saveEvents(batch()), BulkOperationException.class);
+        assertThat(e.getErrors()).extracting(BulkWriteError::getIndex).containsExactly(2);
+    }
+
+    @Test
+    void redeliveredEventsAreCachedOnce() {
+        List<Event> batch = batch();
+        cache.put("u1", new ArrayList<>(), true);
+        when(eventStore.insert(any())).thenAnswer(invocation -> assignIds(invocation.getArgument(0)).size());
+        service.saveEvents(batch);
+
+        when(eventStore.insert(any())).thenAnswer(invocation -> {
+            assignIds(invocation.getArgument(0));
+            throw failure(0, error(DUPLICATE_KEY, 0), error(DUPLICATE_KEY, 1), error(DUPLICATE_KEY, 2));
+        });
+        service.saveEvents(batch);
+
+        assertThat(cache.firstPage("u1", null, 10).getDocs()).extracting(EventDocument::getEventId)
+            .doesNotHaveDuplicates()
+            .hasSize(3);
+    }
+
+    @Test
+    void eventsWrittenBeforeAPartialFailureAreCached() {
+        cache.put("u1", new ArrayList<>(), true);
+        when(eventStore.insert(any())).thenAnswer(invocation -> {
+            assignIds(invocation.getArgument(0));
+            throw failure(2, error(DOCUMENT_VALIDATION, 1));
+        });
+
+        List<Event> batch = batch();
+        catchThrowableOfType(() -> service.saveEvents(batch), BulkOperationException.class);
+
+        assertThat(cache.firstPage("u1", null, 10).getDocs()).extracting(EventDocument::getEventId)
+            .containsExactlyInAnyOrder(batch.get(0).getEventId(), batch.get(2).getEventId());
+    }
+
+    @Test
+    void aFailedWriteDropsTheCachedEntry() {
+        cache.put("u1", new ArrayList<>(), true);
+        when(eventStore.insert(any())).thenThrow(new IllegalStateException("connection reset"));
+
+        catchThrowableOfType(() -> service.saveEvents(batch()), IllegalStateException.class);
+
+        assertThat(cache.firstPage("u1", null, 10)).isNull();
+    }
+
+    @Test
+    void firstPageMissIsLoadedFromThePrimary() {
+        List<EventDocument> stored = assignIds(new ArrayList<>(List.of(
+            new EventDocument("e-1", "u1", EventType.SEARCH, 1L, Map.of()))));
+        when(eventStore.findOnPrimary(any(), anyInt())).thenReturn(stored);
+
+        service.getEventPage(EventQuery.builder().userId("u1").build(), 10);
+
+        verify(eventStore, never()).find(any(), anyInt());
+        assertThat(cache.firstPage("u1", null, 10).getDocs()).hasSize(1);
+    }
+
+    private static List<Event> batch() {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            events.add(new GenericEvent("u1", EventType.SEARCH, Map.of("query", "q" + i)));
+        }
+        return events;
+    }
+
+    private static List<EventDocument> assignIds(List<EventDocument> docs) {
+        docs.forEach(doc -> doc.setId(doc.getEventId()));
+        return docs;
+    }
+
+    private static BulkOperationException failure(int inserted, BulkWriteError... errors) {
+        return new BulkOperationException("bulk write failed", List.of(errors),
+            BulkWriteResult.acknowledged(inserted, 0, 0, 0, Collections.emptyList()));
+    }
+
+    private static BulkWriteError error(int code, int index) {
+        return new BulkWriteError(code, "error " + code, new BsonDocument(), index);
+    }
+}
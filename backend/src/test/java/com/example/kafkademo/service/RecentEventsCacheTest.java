@@ -0,0 +1,181 @@
+package com.example.kafkademo.service;
+
+import com.example.kafkademo.enums.EventType;
+import com.example.kafkademo.model.EventDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentEventsCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void answersFromAPutEntryUntilItExpires() throws InterruptedException {
+        RecentEventsCache cache = cache(10, 3, 50);
+        assertThat(cache.firstPage("u1", null, 2)).isNull();
+
+        cache.put("u1", docs(doc("c", 30), doc("b", 20), doc("a", 10)), true);
+        RecentEventsCache.CachedPage page = cache.firstPage("u1", null, 2);
+        assertThat(ids(page.getDocs())).containsExactly("c", "b");
+        assertThat(page.isMore()).isTrue();
+
+        Thread.sleep(100);
+        assertThat(cache.firstPage("u1", null, 2)).isNull();
+        assertThat(meterRegistry.get("events.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("events.cache.requests").tag("result", "miss").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void completeEntryAnswersShortAndFilteredPages() {
+        RecentEventsCache cache = cache(10, 5, 60_000);
+        cache.put("u1", docs(doc("c", 30), doc("b", 20, EventType.PURCHASE), doc("a", 10)), true);
+
+        RecentEventsCache.CachedPage all = cache.firstPage("u1", null, 10);
+        assertThat(ids(all.getDocs())).containsExactly("c", "b", "a");
+        assertThat(all.isMore()).isFalse();
+        assertThat(ids(cache.firstPage("u1", EventType.PURCHASE, 10).getDocs())).containsExactly("b");
+    }
+
+    @Test
+    void incompleteEntryDoesNotAnswerPagesItCannotFill() {
+        RecentEventsCache cache = cache(10, 2, 60_000);
+        cache.put("u1", docs(doc("c", 30), doc("b", 20), doc("a", 10)), false);
+
+        assertThat(ids(cache.firstPage("u1", null, 2).getDocs())).containsExactly("c", "b");
+        assertThat(cache.firstPage("u1", null, 3)).isNull();
+        assertThat(cache.firstPage("u1", EventType.PURCHASE, 1)).isNull();
+    }
+
+    @Test
+    void storedEventsAreMergedInOrder() {
+        RecentEventsCache cache = cache(10, 5, 60_000);
+        cache.put("u1", docs(doc("c", 30), doc("a", 10)), true);
+
+        cache.onStored(docs(doc("d", 40), doc("b", 20), doc("x", 50, "u2")));
+
+        assertThat(ids(cache.firstPage("u1", null, 10).getDocs())).containsExactly("d", "c", "b", "a");
+        assertThat(cache.firstPage("u2", null, 1)).isNull();
+    }
+
+    @Test
+    void mergingPastCapacityDropsTheOldestAndMarksTheEntryIncomplete() {
+        RecentEventsCache cache = cache(10, 2, 60_000);
+        cache.put("u1", docs(doc("b", 20), doc("a", 10)), true);
+
+        cache.onStored(docs(doc("c", 30)));
+
+        RecentEventsCache.CachedPage page = cache.firstPage("u1", null, 2);
+        assertThat(ids(page.getDocs())).containsExactly("c", "b");
+        assertThat(page.isMore()).isTrue();
+        assertThat(cache.firstPage("u1", null, 3)).isNull();
+    }
+
+    @Test
+    void redeliveredEventsAreMergedOnce() {
+        RecentEventsCache cache = cache(10, 5, 60_000);
+        cache.put("u1", docs(doc("a", 10)), true);
+
+        cache.onStored(docs(doc("b", 20)));
+        cache.onStored(docs(doc("b", 20), doc("a", 10)));
+
+        assertThat(ids(cache.firstPage("u1", null, 10).getDocs())).containsExactly("b", "a");
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedUser() {
+        RecentEventsCache cache = cache(2, 5, 60_000);
+        cache.put("u1", docs(doc("a", 10)), true);
+        cache.put("u2", docs(doc("b", 10, "u2")), true);
+        cache.firstPage("u1", null, 1);
+
+        cache.put("u3", docs(doc("c", 10, "u3")), true);
+
+        assertThat(cache.firstPage("u2", null, 1)).isNull();
+        assertThat(cache.firstPage("u1", null, 1)).isNotNull();
+        assertThat(cache.firstPage("u3", null, 1)).isNotNull();
+    }
+
+    @Test
+    void loadIsNotCachedWhenTheUserChangedWhileItRan() {
+        RecentEventsCache cache = cache(10, 5, 60_000);
+        long loadedAt = cache.version();
+        // Stored while the load was reading; the loaded page may not contain it
+        cache.onStored(docs(doc("b", 20)));
+
+        assertThat(cache.putIfUnchanged("u1", docs(doc("a", 10)), true, loadedAt)).isFalse();
+        assertThat(cache.firstPage("u1", null, 1)).isNull();
+
+        assertThat(cache.putIfUnchanged("u1", docs(doc("b", 20), doc("a", 10)), true, cache.version())).isTrue();
+        assertThat(ids(cache.firstPage("u1", null, 2).getDocs())).containsExactly("b", "a");
+    }
+
+    @Test
+    void loadOfAnotherUserIsCached() {
+        RecentEventsCache cache = cache(10, 5, 60_000);
+        long loadedAt = cache.version();
+        cache.onStored(docs(doc("x", 20, "u2")));
+
+        assertThat(cache.putIfUnchanged("u1", docs(doc("a", 10)), true, loadedAt)).isTrue();
+    }
+
+    @Test
+    void invalidationDropsTheEntryAndRacingLoads() {
+        RecentEventsCache cache = cache(10, 5, 60_000);
+        cache.put("u1", docs(doc("a", 10)), true);
+        long loadedAt = cache.version();
+
+        cache.invalidate(List.of("u1"));
+
+        assertThat(cache.firstPage("u1", null, 1)).isNull();
+        assertThat(cache.putIfUnchanged("u1", docs(doc("a", 10)), true, loadedAt)).isFalse();
+    }
+
+    @Test
+    void forgottenChangesStillRejectOlderLoads() {
+        RecentEventsCache cache = cache(1, 5, 60_000);
+        long loadedAt = cache.version();
+        cache.invalidate(List.of("u1"));
+        // Pushes u1's change out of the bounded change log
+        cache.invalidate(List.of("u2"));
+
+        assertThat(cache.putIfUnchanged("u1", docs(doc("a", 10)), true, loadedAt)).isFalse();
+    }
+
+    private RecentEventsCache cache(int maxUsers, int eventsPerUser, long ttlMs) {
+        return new RecentEventsCache(maxUsers, eventsPerUser, ttlMs, meterRegistry);
+    }
+
+    private static List<EventDocument> docs(EventDocument... docs) {
+        return new ArrayList<>(List.of(docs));
+    }
+
+    private static EventDocument doc(String id, long timestamp) {
+        return doc(id, timestamp, "u1");
+    }
+
+    private static EventDocument doc(String id, long timestamp, String userId) {
+        return doc(id, timestamp, EventType.PAGE_VIEW, userId);
+    }
+
+    private static EventDocument doc(String id, long timestamp, EventType type) {
+        return doc(id, timestamp, type, "u1");
+    }
+
+    private static EventDocument doc(String id, long timestamp, EventType type, String userId) {
+        EventDocument doc = new EventDocument(id, userId, type, timestamp, Map.of());
+        doc.setId(id);
+        return doc;
+    }
+
+    private static List<String> ids(List<EventDocument> docs) {
+        List<String> ids = new ArrayList<>();
+        docs.forEach(doc -> ids.add(doc.getId()));
+        return ids;
+    }
+}